@@ -0,0 +1,48 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitted by {@link Customer#getTotalOrderValue()}, with the number of orders it totalled and, when the cached total
+ * was stale, the number of line items behind them.
+ */
+@Name("com.gs.collections.kata.CustomerValue")
+@Label("Customer Value")
+@Category({"GS Collections Kata", "Customer"})
+@Description("Customer.getTotalOrderValue totalling the orders of a customer")
+@Threshold("100 us")
+final class CustomerValueEvent
+        extends Event
+{
+    @Label("Customer")
+    String customerName;
+
+    @Label("Orders")
+    @Description("Orders of the customer")
+    int orders;
+
+    @Label("Line Items")
+    @Description("Line items of the orders that were revalued, 0 if the cached total was current")
+    int lineItems;
+}
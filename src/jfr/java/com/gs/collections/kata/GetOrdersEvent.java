@@ -0,0 +1,44 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitted by {@link Company#getOrders()}, with the number of customers it traversed and orders it copied.
+ */
+@Name("com.gs.collections.kata.GetOrders")
+@Label("Get Orders")
+@Category({"GS Collections Kata", "Company"})
+@Description("Company.getOrders copying every customer's orders into a new list")
+@Threshold("1 ms")
+final class GetOrdersEvent
+        extends Event
+{
+    @Label("Customers")
+    @Description("Customers whose orders were flattened")
+    int customers;
+
+    @Label("Orders")
+    @Description("Orders copied into the result")
+    int orders;
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Emits Java Flight Recorder events for the hot domain operations, so a recording shows which {@link Company} queries
+ * were running, for how long and over how many customers, orders, line items and suppliers, next to the GC and
+ * allocation data.  The events are in the "GS Collections Kata" category:
+ * <ul>
+ * <li>{@link GetOrdersEvent} for {@link Company#getOrders()}, default threshold 1 ms</li>
+ * <li>{@link OrderValueEvent} for {@link Order#getValue()}, default threshold 20 us</li>
+ * <li>{@link CustomerValueEvent} for {@link Customer#getTotalOrderValue()}, default threshold 100 us</li>
+ * <li>{@link SupplierScanEvent} for {@link Company#getSuppliers()} and {@link Company#getSuppliersOf(String)},
+ * default threshold 100 us</li>
+ * </ul>
+ * The thresholds can be overridden per recording like those of the JDK's own events.  Call {@link #install()} once at
+ * startup; while no recording has an event enabled, its operation creates no event object.
+ * <p/>
+ * Needs a JDK with the {@code jdk.jfr} API, 8u262 or later.
+ */
+public final class KataFlightRecorder
+        implements DomainTracer
+{
+    private static final KataFlightRecorder INSTANCE = new KataFlightRecorder();
+
+    private final EventType getOrders;
+    private final EventType orderValue;
+    private final EventType customerValue;
+    private final EventType supplierScan;
+
+    private KataFlightRecorder()
+    {
+        FlightRecorder.register(GetOrdersEvent.class);
+        FlightRecorder.register(OrderValueEvent.class);
+        FlightRecorder.register(CustomerValueEvent.class);
+        FlightRecorder.register(SupplierScanEvent.class);
+        this.getOrders = EventType.getEventType(GetOrdersEvent.class);
+        this.orderValue = EventType.getEventType(OrderValueEvent.class);
+        this.customerValue = EventType.getEventType(CustomerValueEvent.class);
+        this.supplierScan = EventType.getEventType(SupplierScanEvent.class);
+    }
+
+    /**
+     * Registers the event types and starts emitting them from the domain operations.
+     */
+    public static void install()
+    {
+        DomainTracing.setTracer(INSTANCE);
+    }
+
+    /**
+     * Stops emitting the events.  The event types stay registered.
+     */
+    public static void uninstall()
+    {
+        if (DomainTracing.getTracer() == INSTANCE)
+        {
+            DomainTracing.setTracer(null);
+        }
+    }
+
+    @Override
+    public Object beginGetOrders()
+    {
+        if (!this.getOrders.isEnabled())
+        {
+            return null;
+        }
+        GetOrdersEvent event = new GetOrdersEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endGetOrders(Object trace, int customers, int orders)
+    {
+        if (trace instanceof GetOrdersEvent)
+        {
+            GetOrdersEvent event = (GetOrdersEvent) trace;
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.customers = customers;
+                event.orders = orders;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public Object beginOrderValue()
+    {
+        if (!this.orderValue.isEnabled())
+        {
+            return null;
+        }
+        OrderValueEvent event = new OrderValueEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endOrderValue(Object trace, long orderNumber, int lineItems)
+    {
+        if (trace instanceof OrderValueEvent)
+        {
+            OrderValueEvent event = (OrderValueEvent) trace;
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.orderNumber = orderNumber;
+                event.lineItems = lineItems;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public Object beginCustomerValue()
+    {
+        if (!this.customerValue.isEnabled())
+        {
+            return null;
+        }
+        CustomerValueEvent event = new CustomerValueEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endCustomerValue(Object trace, String customerName, int orders, int lineItems)
+    {
+        if (trace instanceof CustomerValueEvent)
+        {
+            CustomerValueEvent event = (CustomerValueEvent) trace;
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.customerName = customerName;
+                event.orders = orders;
+                event.lineItems = lineItems;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public Object beginSupplierScan()
+    {
+        if (!this.supplierScan.isEnabled())
+        {
+            return null;
+        }
+        SupplierScanEvent event = new SupplierScanEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endSupplierScan(Object trace, String itemName, int suppliers)
+    {
+        if (trace instanceof SupplierScanEvent)
+        {
+            SupplierScanEvent event = (SupplierScanEvent) trace;
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.itemName = itemName;
+                event.suppliers = suppliers;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitted by {@link Order#getValue()}, with the order and the number of line items it was valued from.
+ */
+@Name("com.gs.collections.kata.OrderValue")
+@Label("Order Value")
+@Category({"GS Collections Kata", "Order"})
+@Description("Order.getValue totalling the line items of an order")
+@Threshold("20 us")
+final class OrderValueEvent
+        extends Event
+{
+    @Label("Order Number")
+    long orderNumber;
+
+    @Label("Line Items")
+    @Description("Line items of the order")
+    int lineItems;
+}
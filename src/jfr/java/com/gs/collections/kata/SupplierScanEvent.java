@@ -0,0 +1,45 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitted by {@link Company#getSuppliers()} and {@link Company#getSuppliersOf(String)}, with the number of suppliers
+ * handed out to scan.
+ */
+@Name("com.gs.collections.kata.SupplierScan")
+@Label("Supplier Scan")
+@Category({"GS Collections Kata", "Supplier"})
+@Description("Company.getSuppliers or getSuppliersOf handing out suppliers to scan")
+@Threshold("100 us")
+final class SupplierScanEvent
+        extends Event
+{
+    @Label("Item")
+    @Description("The item the suppliers were looked up by, absent for all suppliers")
+    String itemName;
+
+    @Label("Suppliers")
+    @Description("Suppliers handed out")
+    int suppliers;
+}
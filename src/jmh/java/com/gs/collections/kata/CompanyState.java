@@ -0,0 +1,57 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A {@link Company} shared by the benchmarks, generated once per trial from a fixed seed so every run sees the same
+ * data.
+ */
+@State(Scope.Benchmark)
+public class CompanyState
+{
+    @Param({"1000", "100000"})
+    public int customers;
+
+    public Company company;
+    public Order largestOrder;
+    public Customer lastCustomer;
+    public String lastCustomerName;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        this.company = new CompanyGenerator(42L)
+                .withCustomersPerScale(this.customers)
+                .withSuppliers(7, 1.0)
+                .generate("Bloggs Shed Supplies", 1);
+        for (Order order : this.company.ordersView())
+        {
+            if (this.largestOrder == null || order.getLineItems().size() > this.largestOrder.getLineItems().size())
+            {
+                this.largestOrder = order;
+            }
+        }
+        this.lastCustomer = this.company.getMostRecentCustomer();
+        this.lastCustomerName = this.lastCustomer.getName().toUpperCase();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.TimeUnit;
+
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.api.multimap.list.MutableListMultimap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The customer queries of Exercises 1 to 3, 7 and 8.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerBenchmark
+{
+    @Benchmark
+    public MutableList<String> collectNames(CompanyState state)
+    {
+        return state.company.getCustomers().collect(Customer.TO_NAME);
+    }
+
+    @Benchmark
+    public MutableList<String> getCustomerNames(CompanyState state)
+    {
+        return state.company.getCustomerNames();
+    }
+
+    @Benchmark
+    public MutableList<Customer> selectFromLondon(CompanyState state)
+    {
+        return state.company.getCustomers().select(Customer.FROM_LONDON);
+    }
+
+    @Benchmark
+    public MutableList<String> queryNamesFromLondon(CompanyState state)
+    {
+        return state.company.queryCustomers().select(Customer.FROM_LONDON).collect(Customer.TO_NAME).toList();
+    }
+
+    @Benchmark
+    public MutableList<String> selectThenCollectNamesFromLondon(CompanyState state)
+    {
+        return state.company.getCustomers().select(Customer.FROM_LONDON).collect(Customer.TO_NAME);
+    }
+
+    @Benchmark
+    public int countFromLondon(CompanyState state)
+    {
+        return state.company.getCustomers().count(Customer.FROM_LONDON);
+    }
+
+    @Benchmark
+    public int countCustomersInLondon(CompanyState state)
+    {
+        return state.company.countCustomersIn("London");
+    }
+
+    @Benchmark
+    public MutableListMultimap<String, Customer> groupByCity(CompanyState state)
+    {
+        return state.company.getCustomers().groupBy(Customer.TO_CITY);
+    }
+
+    @Benchmark
+    public Customer maxByTotalOrderValue(CompanyState state)
+    {
+        return state.company.getCustomers().maxBy(Customer.TO_TOTAL_ORDER_VALUE);
+    }
+
+    @Benchmark
+    public MutableList<Customer> leaderboardTop10(CompanyState state)
+    {
+        return state.company.getLeaderboard().getTop(10);
+    }
+
+    @Benchmark
+    public int leaderboardRank(CompanyState state)
+    {
+        return state.company.getLeaderboard().getRank(state.lastCustomer);
+    }
+
+    @Benchmark
+    public MutableList<Double> sortTotalOrderValues(CompanyState state)
+    {
+        return state.company.getCustomers().collect(Customer.TO_TOTAL_ORDER_VALUE).sortThis();
+    }
+
+    @Benchmark
+    public Customer getCustomerNamedHit(CompanyState state)
+    {
+        return state.company.getCustomerNamed(state.lastCustomerName);
+    }
+
+    @Benchmark
+    public Customer getCustomerNamedMiss(CompanyState state)
+    {
+        return state.company.getCustomerNamed("Pete");
+    }
+
+    @Benchmark
+    public double getTotalOrderValue(CompanyState state)
+    {
+        return state.lastCustomer.getTotalOrderValue();
+    }
+}
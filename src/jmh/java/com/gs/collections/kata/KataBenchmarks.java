@@ -0,0 +1,45 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the kata benchmarks with the GC profiler, which adds the allocation rate ({@code gc.alloc.rate.norm}, in bytes
+ * per operation) to the throughput of each benchmark.  Pass a regular expression to run a subset, e.g.
+ * {@code CustomerBenchmark.select}.
+ */
+public final class KataBenchmarks
+{
+    private KataBenchmarks()
+    {
+        throw new AssertionError("Suppress default constructor for noninstantiability");
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(args.length == 0 ? "com\\.gs\\.collections\\.kata\\..*Benchmark" : args[0])
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import com.gs.collections.api.block.function.Function0;
+import com.gs.collections.api.block.function.Function2;
+import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.api.map.MutableMap;
+import com.gs.collections.api.set.MutableSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The order and line item queries of Exercises 4 to 6 and 9.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderBenchmark
+{
+    private static final Function0<Double> ZERO = new Function0<Double>()
+    {
+        @Override
+        public Double value()
+        {
+            return 0.0;
+        }
+    };
+
+    private static final Function2<Double, Customer, Double> ADD_CUSTOMER_TOTAL = new Function2<Double, Customer, Double>()
+    {
+        @Override
+        public Double value(Double total, Customer customer)
+        {
+            return total + customer.getTotalOrderValue();
+        }
+    };
+
+    private static final Predicate<Double> GREATER_THAN_ONE_AND_A_HALF = new Predicate<Double>()
+    {
+        @Override
+        public boolean accept(Double each)
+        {
+            return each > 1.5;
+        }
+    };
+
+    private static final Function2<Double, LineItem, Double> ADD_LINE_ITEM_VALUE = new Function2<Double, LineItem, Double>()
+    {
+        @Override
+        public Double value(Double total, LineItem lineItem)
+        {
+            return total + lineItem.getValue();
+        }
+    };
+
+    private ForkJoinPool pool;
+    private ParallelAggregator aggregator;
+
+    @Setup
+    public void setUp()
+    {
+        this.pool = new ForkJoinPool();
+        this.aggregator = new ParallelAggregator(this.pool);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        this.pool.shutdown();
+    }
+
+    @Benchmark
+    public MutableList<Order> getOrders(CompanyState state)
+    {
+        return state.company.getOrders();
+    }
+
+    @Benchmark
+    public int countOrdersView(CompanyState state)
+    {
+        return state.company.ordersView().count(Order.IS_DELIVERED);
+    }
+
+    @Benchmark
+    public int countOrdersAbove(CompanyState state)
+    {
+        return state.company.countOrdersAbove(100.0);
+    }
+
+    @Benchmark
+    public int countOrdersContaining(CompanyState state)
+    {
+        return state.company.countOrdersContaining("shed");
+    }
+
+    @Benchmark
+    public MutableSet<String> flatCollectItemNames(CompanyState state)
+    {
+        return state.company.getOrders().flatCollect(Order.TO_LINE_ITEMS).collect(LineItem.TO_NAME).toSet();
+    }
+
+    @Benchmark
+    public MutableSet<String> lazyItemNames(CompanyState state)
+    {
+        return state.company.lineItemsView().collect(LineItem.TO_NAME).toSet();
+    }
+
+    @Benchmark
+    public MutableSet<String> queryItemNames(CompanyState state)
+    {
+        return state.company.queryOrders().flatCollect(Order.TO_LINE_ITEM_NAMES).toSet();
+    }
+
+    @Benchmark
+    public double getValue(CompanyState state)
+    {
+        return state.largestOrder.getValue();
+    }
+
+    @Benchmark
+    public MutableList<Double> selectOrderValues(CompanyState state)
+    {
+        return state.lastCustomer.getOrders().collect(Order.TO_VALUE).select(GREATER_THAN_ONE_AND_A_HALF);
+    }
+
+    @Benchmark
+    public MutableMap<String, Double> aggregateByCity(CompanyState state)
+    {
+        return state.company.getCustomers().aggregateBy(Customer.TO_CITY, ZERO, ADD_CUSTOMER_TOTAL);
+    }
+
+    @Benchmark
+    public MutableMap<String, Double> aggregateByItem(CompanyState state)
+    {
+        return state.company.getOrders().flatCollect(Order.TO_LINE_ITEMS).aggregateBy(LineItem.TO_NAME, ZERO, ADD_LINE_ITEM_VALUE);
+    }
+
+    @Benchmark
+    public MutableMap<String, Double> parallelAggregateByCity(CompanyState state)
+    {
+        return this.aggregator.totalOrderValuesByCity(state.company);
+    }
+
+    @Benchmark
+    public MutableMap<String, Double> parallelAggregateByItem(CompanyState state)
+    {
+        return this.aggregator.totalOrderValuesByItem(state.company);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.TimeUnit;
+
+import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.impl.utility.ArrayIterate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The supplier queries of Exercises 2, 3 and 8.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SupplierBenchmark
+{
+    private static final Predicate<Supplier> SUPPLIES_SHEDS = new Predicate<Supplier>()
+    {
+        @Override
+        public boolean accept(Supplier supplier)
+        {
+            return ArrayIterate.contains(supplier.getItemNames(), "shed");
+        }
+    };
+
+    private static final Predicate<Supplier> HAS_MORE_THAN_TWO_ITEMS = new Predicate<Supplier>()
+    {
+        @Override
+        public boolean accept(Supplier supplier)
+        {
+            return supplier.getItemNames().length > 2;
+        }
+    };
+
+    @Benchmark
+    public MutableList<String> collectSupplierNames(CompanyState state)
+    {
+        return ArrayIterate.collect(state.company.getSuppliers(), Supplier.TO_NAME);
+    }
+
+    @Benchmark
+    public int countSuppliersWithMoreThanTwoItems(CompanyState state)
+    {
+        return ArrayIterate.count(state.company.getSuppliers(), HAS_MORE_THAN_TWO_ITEMS);
+    }
+
+    @Benchmark
+    public Supplier detectShedSupplier(CompanyState state)
+    {
+        return ArrayIterate.detect(state.company.getSuppliers(), SUPPLIES_SHEDS);
+    }
+
+    @Benchmark
+    public ImmutableList<Supplier> getSuppliersOfShed(CompanyState state)
+    {
+        return state.company.getSuppliersOf("shed");
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.gs.collections.api.block.HashingStrategy;
+import com.gs.collections.api.list.ListIterable;
+import com.gs.collections.impl.factory.Lists;
+
+/**
+ * Indexes values by a {@link String} key, ignoring case the same way {@link String#equalsIgnoreCase(String)} does.
+ * Hashing folds the key one char at a time, so a lookup never allocates.  Values that share a key are kept in
+ * insertion order.
+ * <p/>
+ * Lookups are lock-free and safe while another thread is adding to the index.  Chains are immutable, the table is
+ * replaced rather than resized in place, and each key's values live in a {@link SnapshotList}.  Calls to
+ * {@link #put(String, Object)} must be serialized by the caller.
+ */
+final class CaseInsensitiveIndex<T>
+{
+    static final HashingStrategy<String> IGNORE_CASE = new HashingStrategy<String>()
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int computeHashCode(String string)
+        {
+            int hashCode = 0;
+            for (int i = 0; i < string.length(); i++)
+            {
+                hashCode = 31 * hashCode + fold(string.charAt(i));
+            }
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(String string1, String string2)
+        {
+            return string1.equalsIgnoreCase(string2);
+        }
+    };
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Returns the key folded to one case, char by char as {@link #IGNORE_CASE} hashes it, so keys that are equal
+     * ignoring case fold to equal strings.
+     */
+    static String fold(String key)
+    {
+        char[] folded = new char[key.length()];
+        for (int i = 0; i < folded.length; i++)
+        {
+            folded[i] = fold(key.charAt(i));
+        }
+        return new String(folded);
+    }
+
+    private static char fold(char c)
+    {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private volatile AtomicReferenceArray<Entry<T>> table = new AtomicReferenceArray<Entry<T>>(DEFAULT_CAPACITY);
+    private int size;
+
+    void put(String key, T value)
+    {
+        int hash = spread(IGNORE_CASE.computeHashCode(key));
+        Entry<T> entry = this.getEntry(key, hash);
+        if (entry == null)
+        {
+            if (this.size >= this.table.length() - (this.table.length() >> 2))
+            {
+                this.rehash();
+            }
+            AtomicReferenceArray<Entry<T>> currentTable = this.table;
+            int index = hash & (currentTable.length() - 1);
+            entry = new Entry<T>(key, hash, new SnapshotList<T>(1), currentTable.get(index));
+            entry.values.add(value);
+            currentTable.set(index, entry);
+            this.size++;
+        }
+        else
+        {
+            entry.values.add(value);
+        }
+    }
+
+    /**
+     * Returns the first value indexed under the key, or null.
+     */
+    T getFirst(String key)
+    {
+        Entry<T> entry = this.getEntry(key, spread(IGNORE_CASE.computeHashCode(key)));
+        return entry == null ? null : entry.values.snapshot().getFirst();
+    }
+
+    ListIterable<T> get(String key)
+    {
+        Entry<T> entry = this.getEntry(key, spread(IGNORE_CASE.computeHashCode(key)));
+        return entry == null ? Lists.immutable.<T>of() : entry.values.snapshot();
+    }
+
+    int count(String key)
+    {
+        Entry<T> entry = this.getEntry(key, spread(IGNORE_CASE.computeHashCode(key)));
+        return entry == null ? 0 : entry.values.snapshot().size();
+    }
+
+    private Entry<T> getEntry(String key, int hash)
+    {
+        AtomicReferenceArray<Entry<T>> currentTable = this.table;
+        for (Entry<T> entry = currentTable.get(hash & (currentTable.length() - 1)); entry != null; entry = entry.next)
+        {
+            if (entry.hash == hash && IGNORE_CASE.equals(entry.key, key))
+            {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void rehash()
+    {
+        AtomicReferenceArray<Entry<T>> oldTable = this.table;
+        AtomicReferenceArray<Entry<T>> newTable = new AtomicReferenceArray<Entry<T>>(oldTable.length() << 1);
+        int mask = newTable.length() - 1;
+        for (int i = 0; i < oldTable.length(); i++)
+        {
+            for (Entry<T> entry = oldTable.get(i); entry != null; entry = entry.next)
+            {
+                int index = entry.hash & mask;
+                newTable.set(index, new Entry<T>(entry.key, entry.hash, entry.values, newTable.get(index)));
+            }
+        }
+        this.table = newTable;
+    }
+
+    private static int spread(int hashCode)
+    {
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    private static final class Entry<T>
+    {
+        private final String key;
+        private final int hash;
+        private final SnapshotList<T> values;
+        private final Entry<T> next;
+
+        private Entry(String key, int hash, SnapshotList<T> values, Entry<T> next)
+        {
+            this.key = key;
+            this.hash = hash;
+            this.values = values;
+            this.next = next;
+        }
+    }
+}
@@ -16,34 +16,105 @@
 
 package com.gs.collections.kata;
 
-import com.gs.collections.api.block.function.Function;
+import com.gs.collections.api.LazyIterable;
+import com.gs.collections.api.bag.Bag;
+import com.gs.collections.api.bag.MutableBag;
 import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.block.predicate.Predicate2;
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.api.list.ListIterable;
 import com.gs.collections.api.list.MutableList;
+import com.gs.collections.impl.bag.mutable.HashBag;
+import com.gs.collections.impl.factory.Lists;
 import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.utility.ArrayIterate;
 import org.junit.Assert;
 
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * A company has a {@link MutableList} of {@link Customer}s.  It has an array of {@link Supplier}s, and a name.
+ * <p/>
+ * Customers are indexed by name and by city, and ranked on the {@link #getLeaderboard() leaderboard}, as they are
+ * added with {@link #addCustomer(Customer)}, so customers added straight to {@link #getCustomers()} cannot be found
+ * through the indexes.  Their orders are also given slots in a delivery index, which finds pending orders without
+ * scanning delivered ones.
+ * <p/>
+ * A company made with {@link #newConcurrentCompany(String)} can have customers added from several threads while
+ * other threads read it.  Its {@link #getCustomers()} returns an unmodifiable snapshot that is consistent however many
+ * customers are added while it is being iterated, and reads never take a lock.  Adding a line item or delivering an
+ * order takes no company-wide lock either, unless a listener is being attached; orders can be delivered from any
+ * thread, but one customer's orders and line items should be added from one thread at a time.
  */
 public class Company
 {
+    private static final int DEFAULT_EXPECTED_LINE_ITEMS = 8;
+
     private final String name;
-    private final MutableList<Customer> customers = FastList.newList();
-    private final Function<Customer, List<Order>> CUSTOMER_ORDER = new Function<Customer, List<Order>>() {
-        @Override
-        public List<Order> valueOf(Customer object) {
-            return object.getOrders();
-        }
-    };
+    private final boolean concurrent;
+    // the live customer list, or null if the company is concurrent
+    private final FastList<Customer> customers;
+    // the published customer snapshots, or null if the company is not concurrent
+    private final SnapshotList<Customer> customerSnapshots;
+    private final Object customersLock = new Object();
+    private final CaseInsensitiveIndex<Customer> customersByName = new CaseInsensitiveIndex<Customer>();
+    private final CaseInsensitiveIndex<Customer> customersByCity = new CaseInsensitiveIndex<Customer>();
+    private final MutableBag<String> customerCountsByCity = HashBag.newBag();
+    private final CustomerLeaderboard leaderboard = new CustomerLeaderboard();
+    private final DeliveryIndex deliveries = new DeliveryIndex();
+    private volatile CompanyListener[] listeners = new CompanyListener[0];
+    // line items and deliveries being made without the customer lock; a replay waits for them to finish
+    private final StripedCounter changesInFlight = new StripedCounter();
+    private volatile boolean replaying;
+
+    private final OrderNumberAllocator orderNumbers = new OrderNumberAllocator();
+    // where newOrder keeps line items, or null to keep them on the heap
+    private final OffHeapLineItemArena lineItemArena;
 
     // suppliers are array based.
-    private Supplier[] suppliers = new Supplier[0];
+    private final SupplierRegistry suppliers = new SupplierRegistry();
 
     public Company(String name)
+    {
+        this(name, false, null);
+    }
+
+    /**
+     * Creates a company whose {@link #newOrder() new orders} keep their line items off the heap, in the arena.
+     */
+    public Company(String name, OffHeapLineItemArena lineItemArena)
+    {
+        this(name, false, lineItemArena);
+    }
+
+    private Company(String name, boolean concurrent, OffHeapLineItemArena lineItemArena)
     {
         this.name = name;
+        this.concurrent = concurrent;
+        this.lineItemArena = lineItemArena;
+        this.customers = concurrent ? null : FastList.<Customer>newList();
+        this.customerSnapshots = concurrent ? new SnapshotList<Customer>() : null;
+    }
+
+    /**
+     * Creates a company that customers can be added to while other threads are reading it.
+     */
+    public static Company newConcurrentCompany(String name)
+    {
+        return new Company(name, true, null);
+    }
+
+    /**
+     * Creates a concurrent company whose new orders keep their line items in the arena.
+     */
+    public static Company newConcurrentCompany(String name, OffHeapLineItemArena lineItemArena)
+    {
+        return new Company(name, true, lineItemArena);
+    }
+
+    public boolean isConcurrent()
+    {
+        return this.concurrent;
     }
 
     public String getName()
@@ -53,60 +124,564 @@ public class Company
 
     public void addCustomer(Customer aCustomer)
     {
-        this.customers.add(aCustomer);
+        synchronized (this.customersLock)
+        {
+            // index before publishing, so any customer a reader can see in a snapshot can also be found by name
+            this.indexCustomer(aCustomer);
+            if (this.concurrent)
+            {
+                this.customerSnapshots.add(aCustomer);
+            }
+            else
+            {
+                this.customers.add(aCustomer);
+            }
+        }
+    }
+
+    /**
+     * Adds all the customers at once, under a single lock acquisition.  The customer list grows no more than once and
+     * a concurrent company publishes a single snapshot once every customer has been indexed.
+     */
+    public void addCustomers(Customer... newCustomers)
+    {
+        synchronized (this.customersLock)
+        {
+            if (!this.concurrent)
+            {
+                this.customers.ensureCapacity(this.customers.size() + newCustomers.length);
+            }
+            for (Customer each : newCustomers)
+            {
+                this.indexCustomer(each);
+                if (!this.concurrent)
+                {
+                    this.customers.add(each);
+                }
+            }
+            if (this.concurrent)
+            {
+                this.customerSnapshots.addAll(newCustomers);
+            }
+        }
+    }
+
+    private void indexCustomer(Customer aCustomer)
+    {
+        this.customersByName.put(aCustomer.getName(), aCustomer);
+        this.customersByCity.put(aCustomer.getCity(), aCustomer);
+        // count under the spelling of the first customer seen in the city, so "London" and "LONDON" share a count
+        this.customerCountsByCity.add(this.customersByCity.getFirst(aCustomer.getCity()).getCity());
+        for (int i = 0; i < aCustomer.getOrders().size(); i++)
+        {
+            this.deliveries.add(aCustomer.getOrders().get(i));
+        }
+        aCustomer.setCompany(this);
+        this.leaderboard.add(aCustomer);
+        for (CompanyListener listener : this.listeners)
+        {
+            listener.customerAdded(aCustomer);
+        }
+    }
+
+    void customerValueChanged(Customer aCustomer, double totalOrderValue)
+    {
+        this.leaderboard.update(aCustomer, totalOrderValue);
     }
 
+    /**
+     * The lock that customers hold while they add an order and report it, and that orders hold for a change made while
+     * {@link #beginChange()} refuses them, so a listener registered by {@link #addListenerAndReplay(CompanyListener)}
+     * sees each change exactly once: in the replay or as an event.
+     */
+    Object getChangeLock()
+    {
+        return this.customersLock;
+    }
+
+    /**
+     * Starts adding a line item or delivering an order without taking the change lock.  Returns true unless a listener
+     * is being replayed, in which case nothing was started and the caller makes the change holding
+     * {@link #getChangeLock()} instead.  A true return must be followed by {@link #endChange()} once the change has
+     * been made and reported.  The cost when no replay is running is one add to a striped counter.
+     */
+    boolean beginChange()
+    {
+        this.changesInFlight.add(1L);
+        if (!this.replaying)
+        {
+            return true;
+        }
+        this.changesInFlight.add(-1L);
+        return false;
+    }
+
+    void endChange()
+    {
+        this.changesInFlight.add(-1L);
+    }
+
+    // called with the change lock held, as the delivery index must only be added to by one thread at a time
+    void orderAdded(Order anOrder)
+    {
+        this.deliveries.add(anOrder);
+        for (CompanyListener listener : this.listeners)
+        {
+            listener.orderAdded(anOrder);
+        }
+    }
+
+    void lineItemAdded(Order anOrder, String itemName, int quantity, double unitPrice)
+    {
+        for (CompanyListener listener : this.listeners)
+        {
+            listener.lineItemAdded(anOrder, itemName, quantity, unitPrice);
+        }
+    }
+
+    void orderDelivered(Order anOrder)
+    {
+        int slot = anOrder.getDeliverySlot();
+        if (slot >= 0)
+        {
+            this.deliveries.markDelivered(slot);
+        }
+        for (CompanyListener listener : this.listeners)
+        {
+            listener.orderDelivered(anOrder);
+        }
+    }
+
+    /**
+     * Registers a listener for the changes made from now on.  See {@link CompanyListener} for which changes are
+     * reported and on which thread.
+     */
+    public void addListener(CompanyListener listener)
+    {
+        synchronized (this.customersLock)
+        {
+            CompanyListener[] current = this.listeners;
+            CompanyListener[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = listener;
+            this.listeners = updated;
+        }
+    }
+
+    public void removeListener(CompanyListener listener)
+    {
+        synchronized (this.customersLock)
+        {
+            MutableList<CompanyListener> remaining = FastList.newListWith(this.listeners);
+            remaining.remove(listener);
+            this.listeners = remaining.toArray(new CompanyListener[remaining.size()]);
+        }
+    }
+
+    /**
+     * Registers the listener and passes it every current customer, with no customer, order or line item added and no
+     * order delivered in between.
+     */
+    void addListenerAndReplay(CompanyListener listener)
+    {
+        synchronized (this.customersLock)
+        {
+            // turn new changes onto the lock, then wait out the ones already running without it
+            this.replaying = true;
+            try
+            {
+                while (this.changesInFlight.sum() != 0L)
+                {
+                    Thread.yield();
+                }
+                this.addListener(listener);
+                for (Customer each : this.getCustomers())
+                {
+                    listener.customerAdded(each);
+                }
+            }
+            finally
+            {
+                this.replaying = false;
+            }
+        }
+    }
+
+    /**
+     * Creates an order numbered from this company's own sequence.
+     */
+    public Order newOrder()
+    {
+        return this.lineItemArena == null ? new Order(this.orderNumbers) : this.newOrder(DEFAULT_EXPECTED_LINE_ITEMS);
+    }
+
+    /**
+     * Creates an order numbered from this company's own sequence, with room for {@code expectedLineItems} line items.
+     */
+    public Order newOrder(int expectedLineItems)
+    {
+        return this.lineItemArena == null
+                ? new Order(this.orderNumbers, expectedLineItems)
+                : new Order(this.orderNumbers, this.lineItemArena, expectedLineItems);
+    }
+
+    /**
+     * Makes sure {@link #newOrder()} numbers new orders after {@code orderNumber}, once orders numbered elsewhere have
+     * been loaded.
+     */
+    void reserveOrderNumbersUpTo(long orderNumber)
+    {
+        this.orderNumbers.advancePast(orderNumber);
+    }
+
+    /**
+     * Returns the live customer list, or for a concurrent company an unmodifiable snapshot of it.
+     */
     public MutableList<Customer> getCustomers()
     {
-        return this.customers;
+        return this.concurrent ? this.customerSnapshots.snapshot() : this.customers;
     }
 
+    /**
+     * Returns a new list holding every customer's orders.  Prefer {@link #ordersView()} unless a copy is needed.
+     */
     public MutableList<Order> getOrders()
     {
-        return this.customers.flatCollect(CUSTOMER_ORDER);
+        long start = CompanyMetrics.start();
+        Object trace = DomainTracing.beginGetOrders();
+        MutableList<Customer> customers = this.getCustomers();
+        MutableList<Order> orders = customers.flatCollect(Customer.TO_ORDERS);
+        CompanyMetrics.GET_ORDERS.record(start, orders.size());
+        DomainTracing.endGetOrders(trace, customers.size(), orders.size());
+        return orders;
+    }
+
+    /**
+     * A lazy view of every customer's orders.  Nothing is copied; select, collect and flatCollect chained on the view
+     * are applied as each order streams past, and the view sees customers and orders added after it was created.  For a
+     * concurrent company the view is over the customers present when it was created.
+     */
+    public LazyIterable<Order> ordersView()
+    {
+        return this.getCustomers().asLazy().flatCollect(Customer.TO_ORDERS);
+    }
+
+    /**
+     * A lazy view of the line items of every order, see {@link #ordersView()}.
+     */
+    public LazyIterable<LineItem> lineItemsView()
+    {
+        return this.ordersView().flatCollect(Order.TO_LINE_ITEMS);
+    }
+
+    /**
+     * A lazy view of the item name of every line item, see {@link #ordersView()}.  Unlike {@link #lineItemsView()} it
+     * creates no {@link LineItem}s.
+     */
+    public LazyIterable<String> lineItemNamesView()
+    {
+        return this.ordersView().flatCollect(Order.TO_LINE_ITEM_NAMES);
+    }
+
+    /**
+     * Starts a fused {@link Query} over the customers.  For a concurrent company each pass is over the customers present
+     * when it starts.
+     */
+    public Query<Customer> queryCustomers()
+    {
+        final Company company = this;
+        return new Query<Customer>()
+        {
+            @Override
+            boolean run(Sink<? super Customer> sink)
+            {
+                return push(company.getCustomers(), sink);
+            }
+        };
+    }
+
+    /**
+     * Starts a fused {@link Query} over every customer's orders.
+     */
+    public Query<Order> queryOrders()
+    {
+        return this.queryCustomers().flatCollect(Customer.TO_ORDERS);
     }
 
     public Customer getMostRecentCustomer()
     {
-        return this.customers.getLast();
+        return this.getCustomers().getLast();
     }
 
     public void addSupplier(Supplier supplier)
     {
-        // need to replace the current array of suppliers with another, larger array
-        // Of course, normally one would not use an array.
+        long start = CompanyMetrics.start();
+        this.suppliers.add(supplier);
+        CompanyMetrics.ADD_SUPPLIER.record(start, supplier.getItemNames().length);
+    }
+
+    /**
+     * Adds all the suppliers at once, growing the registry no more than once.
+     */
+    public void addSuppliers(Supplier... suppliers)
+    {
+        this.suppliers.addAll(suppliers);
+    }
+
+    /**
+     * Returns the orders worth more than the value, customer by customer.  The value is boxed once per call; the
+     * orders are tested with the shared {@link Order#VALUE_ABOVE} predicate, so nothing else is allocated beyond the
+     * result.
+     */
+    public MutableList<Order> getOrdersAbove(double value)
+    {
+        return this.selectOrdersWith(Order.VALUE_ABOVE, value);
+    }
+
+    public int countOrdersAbove(double value)
+    {
+        return this.countOrdersWith(Order.VALUE_ABOVE, value);
+    }
+
+    public boolean hasOrdersAbove(double value)
+    {
+        return this.anyOrderSatisfiesWith(Order.VALUE_ABOVE, value);
+    }
+
+    /**
+     * Returns the orders with a line item of the named item, ignoring case, customer by customer.  The name is resolved
+     * to a symbol once per call, and an item that has never been added finds nothing without visiting any order.
+     */
+    public MutableList<Order> getOrdersContaining(String itemName)
+    {
+        int symbol = itemName == null ? -1 : SymbolTable.GLOBAL.lookupFolded(itemName);
+        return symbol < 0 ? FastList.<Order>newList() : this.selectOrdersWith(Order.CONTAINS_ITEM_SYMBOL, symbol);
+    }
+
+    public int countOrdersContaining(String itemName)
+    {
+        int symbol = itemName == null ? -1 : SymbolTable.GLOBAL.lookupFolded(itemName);
+        return symbol < 0 ? 0 : this.countOrdersWith(Order.CONTAINS_ITEM_SYMBOL, symbol);
+    }
+
+    private <P> MutableList<Order> selectOrdersWith(Predicate2<? super Order, ? super P> predicate, P parameter)
+    {
+        MutableList<Customer> customers = this.getCustomers();
+        MutableList<Order> result = FastList.newList();
+        for (int i = 0; i < customers.size(); i++)
+        {
+            customers.get(i).getOrders().selectWith(predicate, parameter, result);
+        }
+        return result;
+    }
+
+    private <P> int countOrdersWith(Predicate2<? super Order, ? super P> predicate, P parameter)
+    {
+        MutableList<Customer> customers = this.getCustomers();
+        int count = 0;
+        for (int i = 0; i < customers.size(); i++)
+        {
+            count += customers.get(i).getOrders().countWith(predicate, parameter);
+        }
+        return count;
+    }
+
+    private <P> boolean anyOrderSatisfiesWith(Predicate2<? super Order, ? super P> predicate, P parameter)
+    {
+        MutableList<Customer> customers = this.getCustomers();
+        for (int i = 0; i < customers.size(); i++)
+        {
+            if (customers.get(i).getOrders().anySatisfyWith(predicate, parameter))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the supplier with the given name, or null if there is none.
+     */
+    public Supplier getSupplierNamed(String name)
+    {
+        return ArrayIterate.detectWith(this.getSupplierSnapshot(), Supplier.NAMED, name);
+    }
+
+    /**
+     * Counts the suppliers of the named item.  Unlike {@link #getSuppliersOf(String)} it copies nothing.
+     */
+    public int countSuppliersOf(String itemName)
+    {
+        return ArrayIterate.countWith(this.getSupplierSnapshot(), Supplier.CARRIES, itemName);
+    }
 
-        final Supplier[] currentSuppliers = this.suppliers;
-        this.suppliers = new Supplier[currentSuppliers.length + 1];
-        System.arraycopy(currentSuppliers, 0, this.suppliers, 0, currentSuppliers.length);
-        this.suppliers[this.suppliers.length - 1] = supplier;
+    public boolean hasSuppliersOf(String itemName)
+    {
+        return ArrayIterate.anySatisfyWith(this.getSupplierSnapshot(), Supplier.CARRIES, itemName);
     }
 
+    /**
+     * Returns a copy of the company's suppliers that the caller is free to modify.
+     */
     public Supplier[] getSuppliers()
     {
-        return this.suppliers;
+        return this.getSupplierSnapshot().clone();
     }
 
-    public Customer getCustomerNamed(final String name)
+    /**
+     * Returns the snapshot of the company's suppliers without copying it.  The array is shared between readers and
+     * must not be modified; suppliers added later go into a new snapshot, so iterating this one is always safe.
+     */
+    Supplier[] getSupplierSnapshot()
     {
-        /**
-         * Use a {@link Predicate} to find a {@link Customer} with the name given.
-         */
-        Predicate<Customer> findCustomer = new Predicate<Customer>() {
-            @Override
-            public boolean accept(Customer customer) {
-                return customer.getName().equalsIgnoreCase(name);
+        Object trace = DomainTracing.beginSupplierScan();
+        Supplier[] result = this.suppliers.toArray();
+        DomainTracing.endSupplierScan(trace, null, result.length);
+        return result;
+    }
+
+    /**
+     * Returns the suppliers of the named item, in the order they were added.  Served from an item to supplier index
+     * that {@link #addSupplier(Supplier)} keeps up to date.
+     */
+    public ImmutableList<Supplier> getSuppliersOf(String itemName)
+    {
+        Object trace = DomainTracing.beginSupplierScan();
+        ImmutableList<Supplier> result = this.suppliers.getSuppliersOf(itemName);
+        DomainTracing.endSupplierScan(trace, itemName, result.size());
+        return result;
+    }
+
+    /**
+     * Returns the first customer added with the given name, ignoring case, or null if there is none.  A null name
+     * finds no customer.
+     */
+    public Customer getCustomerNamed(String name)
+    {
+        long start = CompanyMetrics.start();
+        Customer customer = name == null ? null : this.customersByName.getFirst(name);
+        CompanyMetrics.GET_CUSTOMER_NAMED.record(start, customer == null ? 0L : 1L);
+        return customer;
+    }
+
+    /**
+     * Returns every customer with the given name, ignoring case, in the order they were added.  A null name finds no
+     * one.
+     */
+    public ListIterable<Customer> getCustomersNamed(String name)
+    {
+        return name == null ? Lists.immutable.<Customer>of() : this.customersByName.get(name);
+    }
+
+    /**
+     * Returns the customers from the given city, ignoring case, in the order they were added.  A null city finds no
+     * one.
+     */
+    public ListIterable<Customer> getCustomersIn(String city)
+    {
+        return city == null ? Lists.immutable.<Customer>of() : this.customersByCity.get(city);
+    }
+
+    public int countCustomersIn(String city)
+    {
+        return city == null ? 0 : this.customersByCity.count(city);
+    }
+
+    public boolean hasCustomersIn(String city)
+    {
+        return this.countCustomersIn(city) > 0;
+    }
+
+    /**
+     * Returns a snapshot of the number of customers in each city.  Cities that differ only in case are counted together
+     * under the spelling of the first customer added from that city.
+     */
+    public Bag<String> getCustomerCountsByCity()
+    {
+        synchronized (this.customersLock)
+        {
+            return this.customerCountsByCity.toImmutable();
+        }
+    }
+
+    /**
+     * Returns the orders not yet delivered, found through the delivery index without visiting delivered orders.
+     */
+    public MutableList<Order> getPendingOrders()
+    {
+        return this.deliveries.getPending(null);
+    }
+
+    /**
+     * Returns the pending orders of the customers accepted by the predicate.
+     */
+    public MutableList<Order> getPendingOrdersOf(Predicate<? super Customer> customerPredicate)
+    {
+        return this.deliveries.getPending(customerPredicate);
+    }
+
+    public int countPendingOrders()
+    {
+        return this.deliveries.size() - this.deliveries.countDelivered();
+    }
+
+    public int countDeliveredOrders()
+    {
+        return this.deliveries.countDelivered();
+    }
+
+    /**
+     * Delivers the pending orders of the customers accepted by the predicate and returns how many were delivered by
+     * this call.  Each order is delivered atomically, so workers delivering overlapping sets of orders never deliver
+     * an order twice.
+     */
+    public int deliverOrdersOf(Predicate<? super Customer> customerPredicate)
+    {
+        return this.deliveries.deliverPending(customerPredicate);
+    }
+
+    /**
+     * Delivers the pending orders of the customers in the city, ignoring case, found through the city index, and
+     * returns how many were delivered by this call.
+     */
+    public int deliverOrdersIn(String city)
+    {
+        int delivered = 0;
+        for (Customer customer : this.getCustomersIn(city))
+        {
+            for (int i = 0; i < customer.getOrders().size(); i++)
+            {
+                if (customer.getOrders().get(i).tryDeliver())
+                {
+                    delivered++;
+                }
             }
-        };
-        return customers.detect(findCustomer);
+        }
+        return delivered;
+    }
+
+    /**
+     * Returns a deeply immutable copy of the company, with its derived values computed up front, that can be shared
+     * between threads without synchronization.  Later changes to the company are not seen by the copy.  The customers
+     * copied are those of {@link #getCustomers()}; other threads must not add orders or line items to them while the
+     * copy is taken.
+     */
+    public ImmutableCompany toImmutable()
+    {
+        return new ImmutableCompany(this);
+    }
+
+    /**
+     * Returns the customers ranked by total order value, kept up to date as customers, orders and line items are added.
+     */
+    public CustomerLeaderboard getLeaderboard()
+    {
+        return this.leaderboard;
     }
 
     public MutableList<String> getCustomerNames() {
-         return customers.collect(new Function<Customer, String>() {
-            @Override
-            public String valueOf(Customer customer) {
-                return customer.getName();
-            }
-        });
+        long start = CompanyMetrics.start();
+        MutableList<String> names = this.getCustomers().collect(Customer.TO_NAME);
+        CompanyMetrics.GET_CUSTOMER_NAMES.record(start, names.size());
+        return names;
     }
 }
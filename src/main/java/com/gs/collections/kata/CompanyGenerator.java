@@ -0,0 +1,255 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.impl.list.mutable.FastList;
+
+/**
+ * Generates a {@link Company} of any size for load and scale testing.  Each unit of scale is
+ * {@link #withCustomersPerScale(int) 10,000 customers} by default, so a scale of 100 gives a million customers, each
+ * with 1 to 5 orders of 1 to 10 line items.
+ * <p/>
+ * Cities, items and suppliers are picked with a Zipf distribution: a skew of 0 picks them uniformly and the higher
+ * the skew, the more often the first few are picked.  Every item has a fixed unit price, and each supplier supplies
+ * the items assigned to it, so popular suppliers supply more items.  The same seed and settings always generate the
+ * same company.
+ * <p/>
+ * The company is bulk loaded: orders and customers are created with room for their line items and orders, and the
+ * customers are added to the company in one go.
+ */
+public final class CompanyGenerator
+{
+    private static final String[] CITY_NAMES = {
+            "London", "Manchester", "Birmingham", "Leeds", "Glasgow", "Liverpool", "Bristol", "Sheffield",
+            "Edinburgh", "Cardiff", "Leicester", "Nottingham", "Belfast", "Newcastle", "Brighton", "Hull",
+            "Plymouth", "Stoke", "Derby", "Southampton", "Portsmouth", "York", "Bath", "Liphook"};
+
+    private static final String[] ITEM_NAMES = {
+            "shed", "big shed", "huge shed", "cup", "saucer", "bowl", "dog", "cat", "goldfish", "gnome",
+            "table", "sofa", "chair", "kettle", "plasma screen", "sandwich toaster"};
+
+    private final long seed;
+    private int customersPerScale = 10000;
+    private int cities = CITY_NAMES.length;
+    private int items = 200;
+    private int suppliers = 50;
+    private double citySkew = 1.0;
+    private double itemSkew = 1.0;
+    private double supplierSkew = 1.0;
+    private int maxOrdersPerCustomer = 5;
+    private int maxLineItemsPerOrder = 10;
+    private int maxQuantity = 4;
+
+    public CompanyGenerator(long seed)
+    {
+        this.seed = seed;
+    }
+
+    public CompanyGenerator withCustomersPerScale(int customersPerScale)
+    {
+        this.customersPerScale = checkPositive("customersPerScale", customersPerScale);
+        return this;
+    }
+
+    public CompanyGenerator withCities(int cities, double skew)
+    {
+        this.cities = checkPositive("cities", cities);
+        this.citySkew = checkSkew(skew);
+        return this;
+    }
+
+    public CompanyGenerator withItems(int items, double skew)
+    {
+        this.items = checkPositive("items", items);
+        this.itemSkew = checkSkew(skew);
+        return this;
+    }
+
+    public CompanyGenerator withSuppliers(int suppliers, double skew)
+    {
+        this.suppliers = checkPositive("suppliers", suppliers);
+        this.supplierSkew = checkSkew(skew);
+        return this;
+    }
+
+    public CompanyGenerator withMaxOrdersPerCustomer(int maxOrdersPerCustomer)
+    {
+        this.maxOrdersPerCustomer = checkPositive("maxOrdersPerCustomer", maxOrdersPerCustomer);
+        return this;
+    }
+
+    public CompanyGenerator withMaxLineItemsPerOrder(int maxLineItemsPerOrder)
+    {
+        this.maxLineItemsPerOrder = checkPositive("maxLineItemsPerOrder", maxLineItemsPerOrder);
+        return this;
+    }
+
+    public CompanyGenerator withMaxQuantity(int maxQuantity)
+    {
+        this.maxQuantity = checkPositive("maxQuantity", maxQuantity);
+        return this;
+    }
+
+    public Company generate(String name, int scale)
+    {
+        return this.generate(new Company(name), scale);
+    }
+
+    /**
+     * Loads {@code scale} units of customers, and the suppliers, into the given company.  Use it to fill a
+     * {@link Company#newConcurrentCompany(String) concurrent} company.
+     */
+    public Company generate(Company company, int scale)
+    {
+        if (scale < 0)
+        {
+            throw new IllegalArgumentException("scale must not be negative: " + scale);
+        }
+        Random random = new Random(this.seed);
+        String[] cityNames = names(CITY_NAMES, "Town ", this.cities);
+        String[] itemNames = names(ITEM_NAMES, "item ", this.items);
+        double[] unitPrices = new double[this.items];
+        for (int i = 0; i < unitPrices.length; i++)
+        {
+            unitPrices[i] = 0.5 * (1 + random.nextInt(2000));
+        }
+        company.addSuppliers(this.generateSuppliers(random, itemNames));
+
+        ZipfDistribution citySampler = new ZipfDistribution(this.cities, this.citySkew);
+        ZipfDistribution itemSampler = new ZipfDistribution(this.items, this.itemSkew);
+        Customer[] customers = new Customer[this.customersPerScale * scale];
+        for (int i = 0; i < customers.length; i++)
+        {
+            int orderCount = 1 + random.nextInt(this.maxOrdersPerCustomer);
+            Customer customer = new Customer("Customer " + i, cityNames[citySampler.sample(random)], orderCount);
+            for (int j = 0; j < orderCount; j++)
+            {
+                int lineItemCount = 1 + random.nextInt(this.maxLineItemsPerOrder);
+                Order order = company.newOrder(lineItemCount);
+                for (int k = 0; k < lineItemCount; k++)
+                {
+                    int item = itemSampler.sample(random);
+                    order.addLineItem(itemNames[item], 1 + random.nextInt(this.maxQuantity), unitPrices[item]);
+                }
+                customer.addOrder(order);
+            }
+            customers[i] = customer;
+        }
+        company.addCustomers(customers);
+        return company;
+    }
+
+    /**
+     * Assigns each item to a supplier picked by the supplier skew, and to a second one a quarter of the time.
+     * Suppliers that are assigned no items supply the item that shares their rank.
+     */
+    private Supplier[] generateSuppliers(Random random, String[] itemNames)
+    {
+        MutableList<MutableList<String>> itemsBySupplier = FastList.newList(this.suppliers);
+        for (int i = 0; i < this.suppliers; i++)
+        {
+            itemsBySupplier.add(FastList.<String>newList());
+        }
+        ZipfDistribution supplierSampler = new ZipfDistribution(this.suppliers, this.supplierSkew);
+        for (String itemName : itemNames)
+        {
+            int first = supplierSampler.sample(random);
+            itemsBySupplier.get(first).add(itemName);
+            if (random.nextInt(4) == 0)
+            {
+                int second = supplierSampler.sample(random);
+                if (second != first)
+                {
+                    itemsBySupplier.get(second).add(itemName);
+                }
+            }
+        }
+        Supplier[] result = new Supplier[this.suppliers];
+        for (int i = 0; i < result.length; i++)
+        {
+            MutableList<String> supplied = itemsBySupplier.get(i);
+            if (supplied.isEmpty())
+            {
+                supplied.add(itemNames[i % itemNames.length]);
+            }
+            result[i] = new Supplier("Supplier " + i, supplied.toArray(new String[supplied.size()]));
+        }
+        return result;
+    }
+
+    private static String[] names(String[] knownNames, String prefix, int count)
+    {
+        String[] result = Arrays.copyOf(knownNames, count);
+        for (int i = knownNames.length; i < count; i++)
+        {
+            result[i] = prefix + i;
+        }
+        return result;
+    }
+
+    private static int checkPositive(String name, int value)
+    {
+        if (value < 1)
+        {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    private static double checkSkew(double skew)
+    {
+        if (skew < 0.0 || Double.isNaN(skew))
+        {
+            throw new IllegalArgumentException("skew must not be negative: " + skew);
+        }
+        return skew;
+    }
+
+    /**
+     * Picks ranks from 0 to n - 1, rank r with a probability proportional to 1 / (r + 1)^skew.
+     */
+    private static final class ZipfDistribution
+    {
+        private final double[] cumulative;
+
+        private ZipfDistribution(int n, double skew)
+        {
+            this.cumulative = new double[n];
+            double total = 0.0;
+            for (int i = 0; i < n; i++)
+            {
+                total += 1.0 / Math.pow(i + 1, skew);
+                this.cumulative[i] = total;
+            }
+            for (int i = 0; i < n; i++)
+            {
+                this.cumulative[i] /= total;
+            }
+        }
+
+        private int sample(Random random)
+        {
+            int index = Arrays.binarySearch(this.cumulative, random.nextDouble());
+            int rank = index < 0 ? -index - 1 : index + 1;
+            return Math.min(rank, this.cumulative.length - 1);
+        }
+    }
+}
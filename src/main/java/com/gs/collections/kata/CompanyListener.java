@@ -0,0 +1,51 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+/**
+ * Receives the changes made to a {@link Company} through its own methods, in the order they are made.  Register one
+ * with {@link Company#addListener(CompanyListener)}, or extend {@link MaterializedView}.
+ * <p/>
+ * Listeners are called on the thread making the change, so they must be quick, must not block and must not change the
+ * company.  {@link #customerAdded(Customer)} and {@link #orderAdded(Order)} are called while the company holds its
+ * customer lock; {@link #lineItemAdded(Order, String, int, double)} and {@link #orderDelivered(Order)} are not, and
+ * may arrive on several threads at once.  A listener registered with its current customers replayed still sees each
+ * change once, as the replay waits for line items and deliveries already under way and holds back new ones.  Changes
+ * that bypass these methods, such as orders added straight to {@link Customer#getOrders()}, are not reported.
+ */
+public interface CompanyListener
+{
+    /**
+     * A customer was added, together with any orders and line items it already had.
+     */
+    void customerAdded(Customer customer);
+
+    /**
+     * An order was added to one of the company's customers, together with any line items it already had.
+     */
+    void orderAdded(Order order);
+
+    /**
+     * A line item was added to one of the company's orders.  The order's value already includes it.
+     */
+    void lineItemAdded(Order order, String itemName, int quantity, double unitPrice);
+
+    /**
+     * One of the company's orders moved from pending to delivered.
+     */
+    void orderDelivered(Order order);
+}
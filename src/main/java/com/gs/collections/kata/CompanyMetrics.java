@@ -0,0 +1,133 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.impl.factory.Lists;
+
+/**
+ * Records how often the hot domain operations are called, how long they take and how large their results are, and
+ * exposes the figures as JMX MBeans under {@code com.gs.collections.kata:type=CompanyMetrics}.
+ * <p/>
+ * Recording is off by default.  Turn it on with {@link #setEnabled(boolean)}, over JMX, or by starting the JVM with
+ * {@code -Dcom.gs.collections.kata.metrics=true}.  While it is off an operation pays for one volatile read and a
+ * branch; while it is on, two {@link System#nanoTime()} calls and four uncontended atomic adds.
+ * <p/>
+ * The result size recorded is the size of the returned list for {@link Company#getOrders()} and
+ * {@link Company#getCustomerNames()}, 1 or 0 for a hit or miss of {@link Company#getCustomerNamed(String)}, the number
+ * of items of the supplier for {@link Company#addSupplier(Supplier)}, the number of orders for
+ * {@link Customer#getTotalOrderValue()} and the number of line items for {@link Order#getValue()}.
+ */
+public final class CompanyMetrics implements CompanyMetricsMBean
+{
+    public static final CompanyMetrics INSTANCE = new CompanyMetrics();
+
+    static final long NOT_RECORDING = Long.MIN_VALUE;
+
+    static final OperationMetrics GET_ORDERS = new OperationMetrics("Company.getOrders");
+    static final OperationMetrics GET_CUSTOMER_NAMED = new OperationMetrics("Company.getCustomerNamed");
+    static final OperationMetrics GET_CUSTOMER_NAMES = new OperationMetrics("Company.getCustomerNames");
+    static final OperationMetrics ADD_SUPPLIER = new OperationMetrics("Company.addSupplier");
+    static final OperationMetrics GET_TOTAL_ORDER_VALUE = new OperationMetrics("Customer.getTotalOrderValue");
+    static final OperationMetrics GET_VALUE = new OperationMetrics("Order.getValue");
+
+    private static final ImmutableList<OperationMetrics> OPERATIONS = Lists.immutable.of(
+            GET_ORDERS, GET_CUSTOMER_NAMED, GET_CUSTOMER_NAMES, ADD_SUPPLIER, GET_TOTAL_ORDER_VALUE, GET_VALUE);
+
+    private static volatile boolean enabled = Boolean.getBoolean("com.gs.collections.kata.metrics");
+
+    private CompanyMetrics()
+    {
+    }
+
+    /**
+     * Returns the start time of a call to pass to {@link OperationMetrics#record(long, long)}, or
+     * {@link #NOT_RECORDING} if recording is off.
+     */
+    static long start()
+    {
+        return enabled ? System.nanoTime() : NOT_RECORDING;
+    }
+
+    public ImmutableList<OperationMetrics> getOperations()
+    {
+        return OPERATIONS;
+    }
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled)
+    {
+        CompanyMetrics.enabled = enabled;
+    }
+
+    @Override
+    public void reset()
+    {
+        for (OperationMetrics each : OPERATIONS)
+        {
+            each.reset();
+        }
+    }
+
+    /**
+     * Registers the control and one MBean per operation with the platform MBean server.
+     */
+    public void registerMBeans() throws JMException
+    {
+        this.registerMBeans(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public void registerMBeans(MBeanServer server) throws JMException
+    {
+        server.registerMBean(this, controlName());
+        for (OperationMetrics each : OPERATIONS)
+        {
+            server.registerMBean(each, operationName(each));
+        }
+    }
+
+    public void unregisterMBeans(MBeanServer server) throws JMException
+    {
+        server.unregisterMBean(controlName());
+        for (OperationMetrics each : OPERATIONS)
+        {
+            server.unregisterMBean(operationName(each));
+        }
+    }
+
+    static ObjectName controlName() throws JMException
+    {
+        return new ObjectName("com.gs.collections.kata:type=CompanyMetrics");
+    }
+
+    static ObjectName operationName(OperationMetrics operation) throws JMException
+    {
+        return new ObjectName("com.gs.collections.kata:type=CompanyMetrics,operation=" + operation.getOperation());
+    }
+}
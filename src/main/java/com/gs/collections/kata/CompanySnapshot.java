@@ -0,0 +1,563 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.gs.collections.api.LazyIterable;
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+import com.gs.collections.impl.utility.LazyIterate;
+
+/**
+ * A read-only, memory-mapped image of a {@link Company}, written once with {@link #write(Company, File)} and reopened
+ * with {@link #open(File)}.
+ * <p/>
+ * Opening a snapshot only maps the file; nothing is decoded.  Customers, orders and line items are fixed-width records
+ * and every string is stored once in a string table, so a query decodes just the records it reads and the operating
+ * system pages in just the parts of the file those records live on.  {@link #getCustomer(int)} decodes one customer
+ * with its orders, {@link #customersView()} decodes customers as they stream past, and {@link #toCompany()} loads the
+ * whole company through the bulk-load path.
+ * <p/>
+ * The file layout is a fixed header followed by these sections, all big-endian:
+ * <pre>
+ * string offsets   int                                              (strings + 1)
+ * string data      UTF-8 bytes
+ * suppliers        name, first item, item count                     12 bytes each
+ * supplier items   item name                                        4 bytes each
+ * customers        name, city, first order, order count, total      24 bytes each
+ * orders           number, value, first line item, count, flags     28 bytes each
+ * line items       name, quantity, unit price                       16 bytes each
+ * </pre>
+ * Names and cities are indexes into the string table.  The string data must fit in 2GB; the record sections are mapped
+ * in chunks and have no such limit.
+ */
+public final class CompanySnapshot
+{
+    private static final int MAGIC = 0x4753434B;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+
+    private static final int SUPPLIER_SIZE = 12;
+    private static final int SUPPLIER_ITEM_SIZE = 4;
+    private static final int CUSTOMER_SIZE = 24;
+    private static final int ORDER_SIZE = 28;
+    private static final int LINE_ITEM_SIZE = 16;
+
+    private static final int DELIVERED = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final String[] strings;
+    private final Section stringOffsets;
+    private final ByteBuffer stringData;
+    private final Section suppliers;
+    private final Section supplierItems;
+    private final Section customers;
+    private final Section orders;
+    private final Section lineItems;
+    private final int companyName;
+    private final long maxOrderNumber;
+
+    private CompanySnapshot(FileChannel channel) throws IOException
+    {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0L, Math.min(HEADER_SIZE, channel.size()));
+        if (header.limit() < HEADER_SIZE || header.getInt(0) != MAGIC)
+        {
+            throw new IOException("Not a company snapshot");
+        }
+        if (header.getInt(4) != VERSION)
+        {
+            throw new IOException("Unsupported company snapshot version: " + header.getInt(4));
+        }
+        this.companyName = header.getInt(8);
+        int stringCount = header.getInt(12);
+        long stringDataLength = header.getLong(16);
+        int supplierCount = header.getInt(24);
+        int supplierItemCount = header.getInt(28);
+        int customerCount = header.getInt(32);
+        int orderCount = header.getInt(36);
+        int lineItemCount = header.getInt(40);
+        this.maxOrderNumber = header.getLong(44);
+
+        long position = HEADER_SIZE;
+        this.stringOffsets = new Section(channel, position, stringCount + 1, 4);
+        position += this.stringOffsets.byteSize();
+        if (stringDataLength > Integer.MAX_VALUE)
+        {
+            throw new IOException("String data too large: " + stringDataLength);
+        }
+        this.stringData = channel.map(FileChannel.MapMode.READ_ONLY, position, stringDataLength);
+        position += stringDataLength;
+        this.suppliers = new Section(channel, position, supplierCount, SUPPLIER_SIZE);
+        position += this.suppliers.byteSize();
+        this.supplierItems = new Section(channel, position, supplierItemCount, SUPPLIER_ITEM_SIZE);
+        position += this.supplierItems.byteSize();
+        this.customers = new Section(channel, position, customerCount, CUSTOMER_SIZE);
+        position += this.customers.byteSize();
+        this.orders = new Section(channel, position, orderCount, ORDER_SIZE);
+        position += this.orders.byteSize();
+        this.lineItems = new Section(channel, position, lineItemCount, LINE_ITEM_SIZE);
+        position += this.lineItems.byteSize();
+        if (position != channel.size())
+        {
+            throw new IOException("Company snapshot is " + channel.size() + " bytes, expected " + position);
+        }
+        this.strings = new String[stringCount];
+    }
+
+    /**
+     * Maps a snapshot written by {@link #write(Company, File)}.  The file is closed again straight away; the mapping
+     * stays valid until the snapshot is garbage collected.
+     */
+    public static CompanySnapshot open(File file) throws IOException
+    {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"))
+        {
+            return new CompanySnapshot(randomAccessFile.getChannel());
+        }
+    }
+
+    /**
+     * Writes the company, its customers with their orders and line items, and its suppliers to the file.  The company
+     * must not change while it is being written.
+     * <p/>
+     * The snapshot is written to a temporary file beside the target and moved over it atomically once complete, so a
+     * failed write leaves the target as it was and a reader never maps a partly written snapshot.
+     */
+    public static void write(Company company, File file) throws IOException
+    {
+        StringTable strings = new StringTable();
+        int companyName = strings.idOf(company.getName());
+        Supplier[] supplierArray = company.getSupplierSnapshot();
+        int supplierItemCount = 0;
+        for (Supplier supplier : supplierArray)
+        {
+            strings.idOf(supplier.getName());
+            for (String itemName : supplier.getItemNames())
+            {
+                strings.idOf(itemName);
+            }
+            supplierItemCount += supplier.getItemNames().length;
+        }
+        MutableList<Customer> customerList = company.getCustomers();
+        long orderCount = 0L;
+        long lineItemCount = 0L;
+        long maxOrderNumber = 0L;
+        for (Customer customer : customerList)
+        {
+            strings.idOf(customer.getName());
+            strings.idOf(customer.getCity());
+            for (Order order : customer.getOrders())
+            {
+                for (LineItem lineItem : order.getLineItems())
+                {
+                    strings.idOf(lineItem.getName());
+                }
+                orderCount++;
+                lineItemCount += order.getLineItems().size();
+                maxOrderNumber = Math.max(maxOrderNumber, order.getOrderNumber());
+            }
+        }
+        if (orderCount > Integer.MAX_VALUE || lineItemCount > Integer.MAX_VALUE)
+        {
+            throw new IOException("Too many orders or line items for a company snapshot");
+        }
+        if (strings.dataLength() > Integer.MAX_VALUE)
+        {
+            throw new IOException("String data too large: " + strings.dataLength());
+        }
+
+        File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        boolean moved = false;
+        try
+        {
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16)))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(companyName);
+                out.writeInt(strings.size());
+                out.writeLong(strings.dataLength());
+                out.writeInt(supplierArray.length);
+                out.writeInt(supplierItemCount);
+                out.writeInt(customerList.size());
+                out.writeInt((int) orderCount);
+                out.writeInt((int) lineItemCount);
+                out.writeLong(maxOrderNumber);
+                out.write(new byte[HEADER_SIZE - out.size()]);
+
+                strings.writeTo(out);
+
+                int firstItem = 0;
+                for (Supplier supplier : supplierArray)
+                {
+                    out.writeInt(strings.idOf(supplier.getName()));
+                    out.writeInt(firstItem);
+                    out.writeInt(supplier.getItemNames().length);
+                    firstItem += supplier.getItemNames().length;
+                }
+                for (Supplier supplier : supplierArray)
+                {
+                    for (String itemName : supplier.getItemNames())
+                    {
+                        out.writeInt(strings.idOf(itemName));
+                    }
+                }
+
+                int firstOrder = 0;
+                for (Customer customer : customerList)
+                {
+                    out.writeInt(strings.idOf(customer.getName()));
+                    out.writeInt(strings.idOf(customer.getCity()));
+                    out.writeInt(firstOrder);
+                    out.writeInt(customer.getOrders().size());
+                    out.writeDouble(customer.getTotalOrderValue());
+                    firstOrder += customer.getOrders().size();
+                }
+                int firstLineItem = 0;
+                for (Customer customer : customerList)
+                {
+                    for (Order order : customer.getOrders())
+                    {
+                        out.writeLong(order.getOrderNumber());
+                        out.writeDouble(order.getValue());
+                        out.writeInt(firstLineItem);
+                        out.writeInt(order.getLineItems().size());
+                        out.writeInt(order.isDelivered() ? DELIVERED : 0);
+                        firstLineItem += order.getLineItems().size();
+                    }
+                }
+                for (Customer customer : customerList)
+                {
+                    for (Order order : customer.getOrders())
+                    {
+                        for (LineItem lineItem : order.getLineItems())
+                        {
+                            out.writeInt(strings.idOf(lineItem.getName()));
+                            out.writeInt(lineItem.getQuantity());
+                            out.writeDouble(lineItem.getUnitPrice());
+                        }
+                    }
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        }
+        finally
+        {
+            if (!moved)
+            {
+                temp.delete();
+            }
+        }
+    }
+
+    public String getCompanyName()
+    {
+        return this.getString(this.companyName);
+    }
+
+    public int getCustomerCount()
+    {
+        return (int) this.customers.size();
+    }
+
+    public int getOrderCount()
+    {
+        return (int) this.orders.size();
+    }
+
+    public int getLineItemCount()
+    {
+        return (int) this.lineItems.size();
+    }
+
+    public String getCustomerName(int index)
+    {
+        return this.getString(this.customers.getInt(this.checkCustomer(index), 0));
+    }
+
+    public String getCustomerCity(int index)
+    {
+        return this.getString(this.customers.getInt(this.checkCustomer(index), 4));
+    }
+
+    /**
+     * The customer's total order value as it was written, read without decoding any orders.
+     */
+    public double getTotalOrderValue(int index)
+    {
+        return this.customers.getDouble(this.checkCustomer(index), 16);
+    }
+
+    /**
+     * Decodes the customer at the index, with its orders and their line items.  Each call returns new objects.
+     */
+    public Customer getCustomer(int index)
+    {
+        long record = this.checkCustomer(index);
+        int firstOrder = this.customers.getInt(record, 8);
+        int orderCount = this.customers.getInt(record, 12);
+        Customer customer = new Customer(
+                this.getString(this.customers.getInt(record, 0)),
+                this.getString(this.customers.getInt(record, 4)),
+                orderCount);
+        for (int i = firstOrder; i < firstOrder + orderCount; i++)
+        {
+            customer.addOrder(this.getOrder(i));
+        }
+        return customer;
+    }
+
+    /**
+     * A lazy view of the customers, decoding each one as it is reached.
+     */
+    public LazyIterable<Customer> customersView()
+    {
+        return LazyIterate.adapt(new CustomerList());
+    }
+
+    public Supplier[] getSuppliers()
+    {
+        Supplier[] result = new Supplier[(int) this.suppliers.size()];
+        for (int i = 0; i < result.length; i++)
+        {
+            int firstItem = this.suppliers.getInt(i, 4);
+            String[] itemNames = new String[this.suppliers.getInt(i, 8)];
+            for (int j = 0; j < itemNames.length; j++)
+            {
+                itemNames[j] = this.getString(this.supplierItems.getInt(firstItem + j, 0));
+            }
+            result[i] = new Supplier(this.getString(this.suppliers.getInt(i, 0)), itemNames);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes the whole snapshot into a new company.  Orders keep their numbers, and the company numbers new orders
+     * after them.
+     */
+    public Company toCompany()
+    {
+        Company company = new Company(this.getCompanyName());
+        company.addSuppliers(this.getSuppliers());
+        Customer[] customerArray = new Customer[this.getCustomerCount()];
+        for (int i = 0; i < customerArray.length; i++)
+        {
+            customerArray[i] = this.getCustomer(i);
+        }
+        company.addCustomers(customerArray);
+        company.reserveOrderNumbersUpTo(this.maxOrderNumber);
+        return company;
+    }
+
+    private Order getOrder(int index)
+    {
+        int firstLineItem = this.orders.getInt(index, 16);
+        int lineItemCount = this.orders.getInt(index, 20);
+        Order order = new Order(this.orders.getLong(index, 0), lineItemCount);
+        for (int i = firstLineItem; i < firstLineItem + lineItemCount; i++)
+        {
+            order.addLineItem(
+                    this.getString(this.lineItems.getInt(i, 0)),
+                    this.lineItems.getInt(i, 4),
+                    this.lineItems.getDouble(i, 8));
+        }
+        if ((this.orders.getInt(index, 24) & DELIVERED) != 0)
+        {
+            order.deliver();
+        }
+        return order;
+    }
+
+    private long checkCustomer(int index)
+    {
+        if (index < 0 || index >= this.customers.size())
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + " Size: " + this.customers.size());
+        }
+        return index;
+    }
+
+    /**
+     * Strings are decoded on first use and kept, so each one is decoded at most once.  Racing decodes of the same
+     * string are harmless as they decode equal strings.  They are not interned in the {@link SymbolTable}: customer
+     * names are unbounded, and the domain objects intern the cities and item names they are given.
+     */
+    private String getString(int id)
+    {
+        String result = this.strings[id];
+        if (result == null)
+        {
+            int start = this.stringOffsets.getInt(id, 0);
+            byte[] bytes = new byte[this.stringOffsets.getInt(id + 1, 0) - start];
+            ByteBuffer data = this.stringData.duplicate();
+            data.position(start);
+            data.get(bytes);
+            result = new String(bytes, UTF_8);
+            this.strings[id] = result;
+        }
+        return result;
+    }
+
+    private final class CustomerList
+            extends AbstractList<Customer>
+            implements RandomAccess
+    {
+        @Override
+        public Customer get(int index)
+        {
+            return CompanySnapshot.this.getCustomer(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return CompanySnapshot.this.getCustomerCount();
+        }
+    }
+
+    /**
+     * Fixed-width records mapped in chunks, so a section can be larger than a single mapping allows.
+     */
+    private static final class Section
+    {
+        private static final int RECORDS_PER_CHUNK_SHIFT = 24;
+
+        private final MappedByteBuffer[] chunks;
+        private final long size;
+        private final int recordSize;
+
+        private Section(FileChannel channel, long position, long size, int recordSize) throws IOException
+        {
+            this.size = size;
+            this.recordSize = recordSize;
+            int chunkCount = (int) ((size + (1L << RECORDS_PER_CHUNK_SHIFT) - 1L) >>> RECORDS_PER_CHUNK_SHIFT);
+            this.chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++)
+            {
+                long first = (long) i << RECORDS_PER_CHUNK_SHIFT;
+                long records = Math.min(1L << RECORDS_PER_CHUNK_SHIFT, size - first);
+                this.chunks[i] = channel.map(
+                        FileChannel.MapMode.READ_ONLY,
+                        position + first * recordSize,
+                        records * recordSize);
+            }
+        }
+
+        private long size()
+        {
+            return this.size;
+        }
+
+        private long byteSize()
+        {
+            return this.size * this.recordSize;
+        }
+
+        private int getInt(long record, int offset)
+        {
+            return this.chunk(record).getInt(this.offset(record, offset));
+        }
+
+        private long getLong(long record, int offset)
+        {
+            return this.chunk(record).getLong(this.offset(record, offset));
+        }
+
+        private double getDouble(long record, int offset)
+        {
+            return this.chunk(record).getDouble(this.offset(record, offset));
+        }
+
+        private ByteBuffer chunk(long record)
+        {
+            return this.chunks[(int) (record >>> RECORDS_PER_CHUNK_SHIFT)];
+        }
+
+        private int offset(long record, int offset)
+        {
+            return (int) (record & ((1L << RECORDS_PER_CHUNK_SHIFT) - 1L)) * this.recordSize + offset;
+        }
+    }
+
+    /**
+     * Numbers each distinct string in the order it is first seen.
+     */
+    private static final class StringTable
+    {
+        private final ObjectIntHashMap<String> ids = ObjectIntHashMap.newMap();
+        private final List<byte[]> encoded = FastList.newList();
+        private long dataLength;
+
+        private int idOf(String string)
+        {
+            int id = this.ids.getIfAbsent(string, -1);
+            if (id < 0)
+            {
+                id = this.encoded.size();
+                byte[] bytes = string.getBytes(UTF_8);
+                this.ids.put(string, id);
+                this.encoded.add(bytes);
+                this.dataLength += bytes.length;
+            }
+            return id;
+        }
+
+        private int size()
+        {
+            return this.encoded.size();
+        }
+
+        private long dataLength()
+        {
+            return this.dataLength;
+        }
+
+        private void writeTo(DataOutputStream out) throws IOException
+        {
+            int offset = 0;
+            out.writeInt(offset);
+            for (byte[] bytes : this.encoded)
+            {
+                offset += bytes.length;
+                out.writeInt(offset);
+            }
+            for (byte[] bytes : this.encoded)
+            {
+                out.write(bytes);
+            }
+        }
+    }
+}
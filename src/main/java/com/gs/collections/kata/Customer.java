@@ -21,14 +21,26 @@ import java.util.List;
 
 import com.gs.collections.api.block.function.Function;
 import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.block.predicate.Predicate2;
 import com.gs.collections.api.list.MutableList;
-import com.gs.collections.impl.block.function.AddFunction;
 import com.gs.collections.impl.list.mutable.FastList;
-import com.gs.collections.impl.utility.ListIterate;
 import org.junit.Assert;
 
 /**
  * Customers have a name, city and a list of {@link Order}s
+ * <p/>
+ * Cities are interned in the {@link SymbolTable}, so customers share their strings, and the case-folded symbol is kept
+ * alongside for int comparisons.  Names are kept as given; there is no bound on how many there are, and a symbol is
+ * never released.
+ * <p/>
+ * The total value of a customer's orders is cached, and is always the orders' values added up in order, exactly as
+ * totalling them again would give.  Adding an order adds its value to the total, and adding a line item to the latest
+ * order adds that order's new value to the cached total of the orders before it, so keeping the total current costs
+ * the same however many orders the customer has.  A line item added to an earlier order totals the orders again.
+ * Orders added straight to {@link #getOrders()} are only noticed on the next read, which totals the orders' own rolled
+ * up values again and makes the customer the owner of any order that has none, so line items added to those orders
+ * afterwards are counted like any other.  A customer added to a {@link Company} tells it the new total when it
+ * changes, so the company's {@link CustomerLeaderboard} can re-rank it.
  */
 public class Customer
 {
@@ -55,10 +67,21 @@ public class Customer
         }
     };
 
+    public static final Function<Customer, Iterable<Order>> TO_ORDERS = new Function<Customer, Iterable<Order>>()
+    {
+        @Override
+        public Iterable<Order> valueOf(Customer customer)
+        {
+            return customer.orders;
+        }
+    };
+
+    private static final int LONDON = SymbolTable.GLOBAL.fold(SymbolTable.GLOBAL.intern("London"));
+
     public static final Predicate<Customer> FROM_LONDON = new Predicate<Customer>() {
         @Override
         public boolean accept(Customer each) {
-            return each.getCity().equalsIgnoreCase("london");
+            return each.citySymbol == LONDON;
         }
     };
 
@@ -72,15 +95,61 @@ public class Customer
                 }
             };
 
+    /**
+     * Accepts customers with the given name, ignoring case.  To find customers by name without a scan, use
+     * {@link Company#getCustomersNamed(String)}.
+     */
+    public static final Predicate2<Customer, String> NAMED = new Predicate2<Customer, String>()
+    {
+        @Override
+        public boolean accept(Customer customer, String name)
+        {
+            return customer.name.equalsIgnoreCase(name);
+        }
+    };
+
+    /**
+     * Accepts customers from the given city, ignoring case.  To find customers by city without a scan, use
+     * {@link Company#getCustomersIn(String)}.
+     */
+    public static final Predicate2<Customer, String> IN_CITY = new Predicate2<Customer, String>()
+    {
+        @Override
+        public boolean accept(Customer customer, String city)
+        {
+            return customer.city.equalsIgnoreCase(city);
+        }
+    };
+
     private final String name;
     private final String city;
+    private final int citySymbol;
 
-    private final MutableList<Order> orders = FastList.newList();
+    private final MutableList<Order> orders;
+
+    private Company company;
+
+    private double cachedTotalOrderValue;
+    // the total of every order but the last, so a change to the last order re-adds just its value
+    private double cachedTotalBeforeLastOrder;
+    private int cachedOrderCount;
+    private boolean totalOrderValueValid = true;
 
     public Customer(String name, String city)
     {
+        this(name, city, 10);
+    }
+
+    /**
+     * Creates a customer with room for {@code expectedOrders} orders, for loading customers in bulk.
+     */
+    public Customer(String name, String city, int expectedOrders)
+    {
+        this.orders = FastList.newList(expectedOrders);
         this.name = name;
-        this.city = city;
+        int interned = SymbolTable.GLOBAL.intern(city);
+        this.city = SymbolTable.GLOBAL.valueOf(interned);
+        this.citySymbol = SymbolTable.GLOBAL.fold(interned);
     }
 
     public String getCity()
@@ -93,26 +162,144 @@ public class Customer
         return this.name;
     }
 
+    /**
+     * The folded symbol of the city; customers whose cities are equal ignoring case share it.
+     */
+    int getCitySymbol()
+    {
+        return this.citySymbol;
+    }
+
     public MutableList<Order> getOrders()
     {
         return this.orders;
     }
 
     public void addOrder(Order anOrder)
+    {
+        if (this.company == null)
+        {
+            this.appendOrder(anOrder);
+        }
+        else
+        {
+            synchronized (this.company.getChangeLock())
+            {
+                this.appendOrder(anOrder);
+            }
+        }
+    }
+
+    private void appendOrder(Order anOrder)
     {
         this.orders.add(anOrder);
+        anOrder.setCustomer(this);
+        if (this.company != null)
+        {
+            this.company.orderAdded(anOrder);
+        }
+        if (this.isTotalOrderValueCurrent(this.orders.size() - 1))
+        {
+            this.cachedTotalBeforeLastOrder = this.cachedTotalOrderValue;
+            this.cachedTotalOrderValue += anOrder.getValue();
+            this.cachedOrderCount = this.orders.size();
+        }
+        else
+        {
+            this.totalOrderValueValid = false;
+        }
+        this.totalOrderValueChanged();
     }
 
     public double getTotalOrderValue()
     {
-        MutableList<Double> orderValues = ListIterate.collect(this.orders, new Function<Order, Double>()
+        long start = CompanyMetrics.start();
+        Object trace = DomainTracing.beginCustomerValue();
+        int lineItems = this.isTotalOrderValueCurrent(this.orders.size()) ? 0 : this.revalueOrders();
+        CompanyMetrics.GET_TOTAL_ORDER_VALUE.record(start, this.orders.size());
+        DomainTracing.endCustomerValue(trace, this.name, this.orders.size(), lineItems);
+        return this.cachedTotalOrderValue;
+    }
+
+    void lineItemAdded(Order order, String itemName, int quantity, double unitPrice)
+    {
+        if (this.isTotalOrderValueCurrent(this.orders.size()) && order == this.orders.getLast())
+        {
+            this.cachedTotalOrderValue = this.cachedTotalBeforeLastOrder + order.getRolledUpValue();
+        }
+        else
+        {
+            this.totalOrderValueValid = false;
+        }
+        this.totalOrderValueChanged();
+        if (this.company != null)
+        {
+            this.company.lineItemAdded(order, itemName, quantity, unitPrice);
+        }
+    }
+
+    void orderDelivered(Order order)
+    {
+        if (this.company != null)
+        {
+            this.company.orderDelivered(order);
+        }
+    }
+
+    Company getCompany()
+    {
+        return this.company;
+    }
+
+    void setCompany(Company company)
+    {
+        this.company = company;
+    }
+
+    private void totalOrderValueChanged()
+    {
+        if (this.company != null)
         {
-            @Override
-            public Double valueOf(Order order)
+            if (!this.isTotalOrderValueCurrent(this.orders.size()))
             {
-                return order.getValue();
+                this.revalueOrders();
             }
-        });
-        return orderValues.injectInto(0.0, AddFunction.DOUBLE_TO_DOUBLE);
+            this.company.customerValueChanged(this, this.cachedTotalOrderValue);
+        }
+    }
+
+    /**
+     * Totals the orders again and returns the number of line items behind them.
+     */
+    private int revalueOrders()
+    {
+        double total = 0.0;
+        double totalBeforeLastOrder = 0.0;
+        int lineItems = 0;
+        for (int i = 0; i < this.orders.size(); i++)
+        {
+            totalBeforeLastOrder = total;
+            Order order = this.orders.get(i);
+            if (order.getCustomer() == null)
+            {
+                // added straight to getOrders(); owning it lets its later line items reach the cached total
+                order.setCustomer(this);
+            }
+            total += order.getValue();
+            lineItems += order.getLineItemCount();
+        }
+        this.cachedTotalOrderValue = total;
+        this.cachedTotalBeforeLastOrder = totalBeforeLastOrder;
+        this.cachedOrderCount = this.orders.size();
+        this.totalOrderValueValid = true;
+        return lineItems;
+    }
+
+    /**
+     * The order count guards against orders added straight to {@link #getOrders()}, which bypasses {@link #addOrder}.
+     */
+    private boolean isTotalOrderValueCurrent(int expectedOrderCount)
+    {
+        return this.totalOrderValueValid && this.cachedOrderCount == expectedOrderCount;
     }
 }
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.api.map.MutableMap;
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.map.mutable.UnifiedMap;
+
+/**
+ * A company's customers ranked by total order value, highest first, with ties ranked in the order the customers were
+ * added.  It is kept up to date as customers are added to the company and as orders and line items are added to them.
+ * <p/>
+ * The ranking is an AVL tree in which every node knows the size of its subtree, so a customer's rank and the number of
+ * customers in a value range are found in O(log n) and the top, bottom or a range of k customers in O(log n + k).
+ * Customers whose orders change without going through {@link Customer#addOrder(Order)} or
+ * {@link Order#addLineItem(String, int, double)} keep their old ranking.
+ */
+public final class CustomerLeaderboard
+{
+    private final MutableMap<Customer, Node> nodes = UnifiedMap.newMap();
+    private Node root;
+    private long nextSequence;
+
+    synchronized void add(Customer customer)
+    {
+        Node node = new Node(customer, customer.getTotalOrderValue(), this.nextSequence++);
+        this.nodes.put(customer, node);
+        this.root = insert(this.root, node);
+    }
+
+    /**
+     * Re-ranks the customer under its new total order value.
+     */
+    synchronized void update(Customer customer, double value)
+    {
+        Node node = this.nodes.get(customer);
+        if (node != null && Double.compare(node.value, value) != 0)
+        {
+            this.root = remove(this.root, node);
+            Node updated = new Node(customer, value, node.sequence);
+            this.nodes.put(customer, updated);
+            this.root = insert(this.root, updated);
+        }
+    }
+
+    public synchronized int size()
+    {
+        return size(this.root);
+    }
+
+    /**
+     * Returns the {@code k} customers with the highest total order values, highest first.
+     */
+    public synchronized MutableList<Customer> getTop(int k)
+    {
+        MutableList<Customer> result = FastList.newList(Math.min(Math.max(k, 0), this.size()));
+        addDescending(this.root, result, k);
+        return result;
+    }
+
+    /**
+     * Returns the {@code k} customers with the lowest total order values, lowest first.
+     */
+    public synchronized MutableList<Customer> getBottom(int k)
+    {
+        MutableList<Customer> result = FastList.newList(Math.min(Math.max(k, 0), this.size()));
+        addAscending(this.root, result, k);
+        return result;
+    }
+
+    /**
+     * Returns the customer's rank, 1 for the highest total order value, or -1 if the customer is not on the
+     * leaderboard.
+     */
+    public synchronized int getRank(Customer customer)
+    {
+        Node node = this.nodes.get(customer);
+        return node == null ? -1 : countBefore(this.root, node.value, node.sequence) + 1;
+    }
+
+    /**
+     * Returns the customers whose total order value is between {@code low} and {@code high} inclusive, highest first.
+     */
+    public synchronized MutableList<Customer> getCustomersBetween(double low, double high)
+    {
+        MutableList<Customer> result = FastList.newList();
+        addBetween(this.root, low, high, result);
+        return result;
+    }
+
+    /**
+     * Counts the customers whose total order value is between {@code low} and {@code high} inclusive.
+     */
+    public synchronized int countCustomersBetween(double low, double high)
+    {
+        if (low > high)
+        {
+            return 0;
+        }
+        return countBefore(this.root, low, Long.MAX_VALUE) - countBefore(this.root, high, Long.MIN_VALUE);
+    }
+
+    /**
+     * Ranks higher values first, then earlier sequence numbers first.  Returns a negative number if the first key ranks
+     * before the second.
+     */
+    private static int compare(double value, long sequence, Node node)
+    {
+        int byValue = Double.compare(node.value, value);
+        return byValue != 0 ? byValue : Long.compare(sequence, node.sequence);
+    }
+
+    /**
+     * Counts the nodes that rank before the key.
+     */
+    private static int countBefore(Node node, double value, long sequence)
+    {
+        int count = 0;
+        while (node != null)
+        {
+            if (compare(value, sequence, node) <= 0)
+            {
+                node = node.left;
+            }
+            else
+            {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    private static void addDescending(Node node, MutableList<Customer> result, int k)
+    {
+        if (node == null || result.size() >= k)
+        {
+            return;
+        }
+        addDescending(node.left, result, k);
+        if (result.size() < k)
+        {
+            result.add(node.customer);
+            addDescending(node.right, result, k);
+        }
+    }
+
+    private static void addAscending(Node node, MutableList<Customer> result, int k)
+    {
+        if (node == null || result.size() >= k)
+        {
+            return;
+        }
+        addAscending(node.right, result, k);
+        if (result.size() < k)
+        {
+            result.add(node.customer);
+            addAscending(node.left, result, k);
+        }
+    }
+
+    private static void addBetween(Node node, double low, double high, MutableList<Customer> result)
+    {
+        if (node == null)
+        {
+            return;
+        }
+        // the left subtree holds values no lower than this node's, the right subtree values no higher
+        if (node.value <= high)
+        {
+            addBetween(node.left, low, high, result);
+        }
+        if (node.value >= low && node.value <= high)
+        {
+            result.add(node.customer);
+        }
+        if (node.value >= low)
+        {
+            addBetween(node.right, low, high, result);
+        }
+    }
+
+    private static Node insert(Node node, Node newNode)
+    {
+        if (node == null)
+        {
+            return newNode;
+        }
+        if (compare(newNode.value, newNode.sequence, node) < 0)
+        {
+            node.left = insert(node.left, newNode);
+        }
+        else
+        {
+            node.right = insert(node.right, newNode);
+        }
+        return rebalance(node);
+    }
+
+    private static Node remove(Node node, Node target)
+    {
+        int comparison = compare(target.value, target.sequence, node);
+        if (comparison < 0)
+        {
+            node.left = remove(node.left, target);
+        }
+        else if (comparison > 0)
+        {
+            node.right = remove(node.right, target);
+        }
+        else
+        {
+            if (node.left == null)
+            {
+                return node.right;
+            }
+            if (node.right == null)
+            {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null)
+            {
+                successor = successor.left;
+            }
+            successor.right = removeFirst(node.right);
+            successor.left = node.left;
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+
+    private static Node removeFirst(Node node)
+    {
+        if (node.left == null)
+        {
+            return node.right;
+        }
+        node.left = removeFirst(node.left);
+        return rebalance(node);
+    }
+
+    private static Node rebalance(Node node)
+    {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1)
+        {
+            if (height(node.left.left) < height(node.left.right))
+            {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1)
+        {
+            if (height(node.right.right) < height(node.right.left))
+            {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateLeft(Node node)
+    {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node)
+    {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static void update(Node node)
+    {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int height(Node node)
+    {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node
+    {
+        private final Customer customer;
+        private final double value;
+        private final long sequence;
+        private Node left;
+        private Node right;
+        private int height = 1;
+        private int size = 1;
+
+        private Node(Customer customer, double value, long sequence)
+        {
+            this.customer = customer;
+            this.value = value;
+            this.sequence = sequence;
+        }
+    }
+}
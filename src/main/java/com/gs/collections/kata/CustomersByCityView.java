@@ -0,0 +1,50 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.api.multimap.list.ImmutableListMultimap;
+import com.gs.collections.api.multimap.list.MutableListMultimap;
+import com.gs.collections.impl.multimap.list.FastListMultimap;
+
+/**
+ * The customers grouped by city, the same as {@code getCustomers().groupBy(Customer.TO_CITY)}, maintained in O(1)
+ * per customer added.
+ */
+public final class CustomersByCityView extends MaterializedView
+{
+    private final MutableListMultimap<String, Customer> customersByCity = FastListMultimap.newMultimap();
+
+    @Override
+    public synchronized void customerAdded(Customer customer)
+    {
+        this.customersByCity.put(customer.getCity(), customer);
+    }
+
+    public synchronized ImmutableList<Customer> getCustomers(String city)
+    {
+        return this.customersByCity.get(city).toImmutable();
+    }
+
+    /**
+     * Returns a copy of the grouping.
+     */
+    public synchronized ImmutableListMultimap<String, Customer> toMultimap()
+    {
+        return this.customersByCity.toImmutable();
+    }
+}
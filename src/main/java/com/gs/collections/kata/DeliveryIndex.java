@@ -0,0 +1,146 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.impl.list.mutable.FastList;
+
+/**
+ * Separates a company's pending orders from its delivered ones.  Every order the company knows about is given a slot,
+ * and a bitset over the slots has a bit set for each delivered order, so the pending orders are found by skipping
+ * whole words of delivered ones rather than by visiting every order.
+ * <p/>
+ * The order's own state is the source of truth: {@link Order#tryDeliver()} moves it from pending to delivered exactly
+ * once and then sets its bit here.  The bitset is made of fixed pages that are never replaced, so setting a bit is a
+ * lock-free atomic update that cannot be lost while slots are being added.  Calls to {@link #add(Order)} must be
+ * serialized by the caller; everything else is safe from any thread.
+ */
+final class DeliveryIndex
+{
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int WORDS_PER_PAGE = PAGE_SIZE >>> 6;
+
+    private final SnapshotList<Order> orders = new SnapshotList<Order>();
+    private volatile AtomicLongArray[] pages = new AtomicLongArray[0];
+
+    void add(Order order)
+    {
+        int slot = this.orders.snapshot().size();
+        if (slot >>> PAGE_SHIFT == this.pages.length)
+        {
+            AtomicLongArray[] grown = Arrays.copyOf(this.pages, this.pages.length + 1);
+            grown[this.pages.length] = new AtomicLongArray(WORDS_PER_PAGE);
+            this.pages = grown;
+        }
+        order.setDeliverySlot(slot);
+        if (order.isDelivered())
+        {
+            this.markDelivered(slot);
+        }
+        this.orders.add(order);
+    }
+
+    void markDelivered(int slot)
+    {
+        AtomicLongArray page = this.pages[slot >>> PAGE_SHIFT];
+        int word = (slot & (PAGE_SIZE - 1)) >>> 6;
+        long mask = 1L << slot;
+        long current = page.get(word);
+        while ((current & mask) == 0L && !page.compareAndSet(word, current, current | mask))
+        {
+            current = page.get(word);
+        }
+    }
+
+    int size()
+    {
+        return this.orders.snapshot().size();
+    }
+
+    int countDelivered()
+    {
+        int size = this.size();
+        AtomicLongArray[] currentPages = this.pages;
+        int count = 0;
+        for (int slot = 0; slot < size; slot += 64)
+        {
+            count += Long.bitCount(this.word(currentPages, slot) & validBits(slot, size));
+        }
+        return count;
+    }
+
+    /**
+     * Returns the orders that are pending, in the order they were indexed, or only those whose customer is accepted by
+     * the predicate if it is not null.
+     */
+    MutableList<Order> getPending(Predicate<? super Customer> customerPredicate)
+    {
+        MutableList<Order> snapshot = this.orders.snapshot();
+        AtomicLongArray[] currentPages = this.pages;
+        MutableList<Order> result = FastList.newList();
+        for (int slot = 0; slot < snapshot.size(); slot += 64)
+        {
+            long pending = ~this.word(currentPages, slot) & validBits(slot, snapshot.size());
+            while (pending != 0L)
+            {
+                Order order = snapshot.get(slot + Long.numberOfTrailingZeros(pending));
+                if (customerPredicate == null || customerPredicate.accept(order.getCustomer()))
+                {
+                    result.add(order);
+                }
+                pending &= pending - 1L;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Delivers the pending orders whose customer is accepted by the predicate, and returns how many this call
+     * delivered.  Orders delivered by another thread in the meantime are skipped.
+     */
+    int deliverPending(Predicate<? super Customer> customerPredicate)
+    {
+        int delivered = 0;
+        for (Order order : this.getPending(customerPredicate))
+        {
+            if (order.tryDeliver())
+            {
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    private long word(AtomicLongArray[] currentPages, int slot)
+    {
+        return currentPages[slot >>> PAGE_SHIFT].get((slot & (PAGE_SIZE - 1)) >>> 6);
+    }
+
+    /**
+     * The bits of the word starting at {@code slot} that belong to slots below {@code size}.
+     */
+    private static long validBits(int slot, int size)
+    {
+        int valid = size - slot;
+        return valid >= 64 ? -1L : (1L << valid) - 1L;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+/**
+ * Traces the hot domain operations for a profiler, such as the Java Flight Recorder events of the
+ * {@code GSCollectionsKataFlightRecorder} module.  Each {@code begin} method is called as an operation starts and
+ * returns a trace to hand to the matching {@code end} method, or null to leave that call untraced.  The {@code end}
+ * methods carry the number of elements the call touched.  A trace may outlive the tracer that began it, so an
+ * {@code end} method must ignore traces it does not recognise.
+ * <p/>
+ * Operations reach the installed tracer through {@link DomainTracing}.
+ */
+interface DomainTracer
+{
+    Object beginGetOrders();
+
+    void endGetOrders(Object trace, int customers, int orders);
+
+    Object beginOrderValue();
+
+    void endOrderValue(Object trace, long orderNumber, int lineItems);
+
+    Object beginCustomerValue();
+
+    /**
+     * @param lineItems the line items of the orders that were revalued, 0 if the cached total was current
+     */
+    void endCustomerValue(Object trace, String customerName, int orders, int lineItems);
+
+    Object beginSupplierScan();
+
+    /**
+     * @param itemName the item the suppliers were looked up by, or null for all suppliers
+     */
+    void endSupplierScan(Object trace, String itemName, int suppliers);
+}
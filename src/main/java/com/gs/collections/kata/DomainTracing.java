@@ -0,0 +1,104 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+/**
+ * Hands the hot domain operations to the installed {@link DomainTracer}, if there is one.  With no tracer installed
+ * an operation pays for a volatile read and a branch at either end, and allocates nothing.
+ */
+final class DomainTracing
+{
+    private static volatile DomainTracer tracer;
+
+    private DomainTracing()
+    {
+        throw new AssertionError("Suppress default constructor for noninstantiability");
+    }
+
+    static DomainTracer getTracer()
+    {
+        return tracer;
+    }
+
+    /**
+     * Installs the tracer, replacing any installed before; null uninstalls it.
+     */
+    static void setTracer(DomainTracer newTracer)
+    {
+        tracer = newTracer;
+    }
+
+    static Object beginGetOrders()
+    {
+        DomainTracer current = tracer;
+        return current == null ? null : current.beginGetOrders();
+    }
+
+    static void endGetOrders(Object trace, int customers, int orders)
+    {
+        DomainTracer current = tracer;
+        if (trace != null && current != null)
+        {
+            current.endGetOrders(trace, customers, orders);
+        }
+    }
+
+    static Object beginOrderValue()
+    {
+        DomainTracer current = tracer;
+        return current == null ? null : current.beginOrderValue();
+    }
+
+    static void endOrderValue(Object trace, long orderNumber, int lineItems)
+    {
+        DomainTracer current = tracer;
+        if (trace != null && current != null)
+        {
+            current.endOrderValue(trace, orderNumber, lineItems);
+        }
+    }
+
+    static Object beginCustomerValue()
+    {
+        DomainTracer current = tracer;
+        return current == null ? null : current.beginCustomerValue();
+    }
+
+    static void endCustomerValue(Object trace, String customerName, int orders, int lineItems)
+    {
+        DomainTracer current = tracer;
+        if (trace != null && current != null)
+        {
+            current.endCustomerValue(trace, customerName, orders, lineItems);
+        }
+    }
+
+    static Object beginSupplierScan()
+    {
+        DomainTracer current = tracer;
+        return current == null ? null : current.beginSupplierScan();
+    }
+
+    static void endSupplierScan(Object trace, String itemName, int suppliers)
+    {
+        DomainTracer current = tracer;
+        if (trace != null && current != null)
+        {
+            current.endSupplierScan(trace, itemName, suppliers);
+        }
+    }
+}
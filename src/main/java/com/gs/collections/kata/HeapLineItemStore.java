@@ -0,0 +1,136 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.Arrays;
+
+/**
+ * Columnar storage for the {@link LineItem}s of an {@link Order} on the heap.  Quantities and unit prices live in
+ * primitive columns and names are stored as {@link SymbolTable} symbols in an int column, so an order can be valued and
+ * searched without creating any objects.
+ * The total value is rolled up as items are appended.
+ */
+final class HeapLineItemStore implements LineItemStore
+{
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private int[] nameSymbols;
+    private int[] quantities;
+    private double[] prices;
+    private int size;
+    private double total;
+
+    HeapLineItemStore()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    HeapLineItemStore(int initialCapacity)
+    {
+        this.nameSymbols = new int[initialCapacity];
+        this.quantities = new int[initialCapacity];
+        this.prices = new double[initialCapacity];
+    }
+
+    @Override
+    public void add(String name, int quantity, double unitPrice)
+    {
+        this.ensureCapacity(this.size + 1);
+        this.nameSymbols[this.size] = SymbolTable.GLOBAL.intern(name);
+        this.quantities[this.size] = quantity;
+        this.prices[this.size] = unitPrice;
+        this.size++;
+        this.total += quantity * unitPrice;
+    }
+
+    @Override
+    public int size()
+    {
+        return this.size;
+    }
+
+    @Override
+    public String getName(int index)
+    {
+        return SymbolTable.GLOBAL.valueOf(this.nameSymbols[index]);
+    }
+
+    @Override
+    public int getQuantity(int index)
+    {
+        return this.quantities[index];
+    }
+
+    @Override
+    public double getUnitPrice(int index)
+    {
+        return this.prices[index];
+    }
+
+    @Override
+    public double getValue(int index)
+    {
+        return this.quantities[index] * this.prices[index];
+    }
+
+    @Override
+    public double getTotal()
+    {
+        return this.total;
+    }
+
+    @Override
+    public boolean containsFoldedName(int foldedSymbol)
+    {
+        SymbolTable symbols = SymbolTable.GLOBAL;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (symbols.fold(this.nameSymbols[i]) == foldedSymbol)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getQuantityOfFoldedName(int foldedSymbol)
+    {
+        SymbolTable symbols = SymbolTable.GLOBAL;
+        int quantity = 0;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (symbols.fold(this.nameSymbols[i]) == foldedSymbol)
+            {
+                quantity += this.quantities[i];
+            }
+        }
+        return quantity;
+    }
+
+    private void ensureCapacity(int minCapacity)
+    {
+        int capacity = this.prices.length;
+        if (minCapacity > capacity)
+        {
+            int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1) + 1);
+            this.nameSymbols = Arrays.copyOf(this.nameSymbols, newCapacity);
+            this.quantities = Arrays.copyOf(this.quantities, newCapacity);
+            this.prices = Arrays.copyOf(this.prices, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.api.multimap.list.ImmutableListMultimap;
+import com.gs.collections.api.multimap.list.MutableListMultimap;
+import com.gs.collections.impl.factory.Lists;
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.multimap.list.FastListMultimap;
+
+/**
+ * A deeply immutable copy of a {@link Company}, taken by {@link Company#toImmutable()}, for sharing between threads
+ * that only read.  Its customers, orders, line items and suppliers are all immutable, held in {@link ImmutableList}s
+ * sized exactly to their contents, so any number of threads can read it without locks or defensive copies.
+ * <p/>
+ * Values that the company derives on demand are computed once, when the copy is taken: the value of each order, the
+ * total of each customer and of the company, the list of all orders, and the customer and supplier indexes.
+ * Customers are indexed by name and city ignoring case, like the company's own indexes, and suppliers by item name.
+ */
+public final class ImmutableCompany
+{
+    private final String name;
+    private final ImmutableList<ImmutableCustomer> customers;
+    private final ImmutableList<ImmutableOrder> orders;
+    private final ImmutableList<ImmutableSupplier> suppliers;
+    // keyed by the case-folded name
+    private final ImmutableListMultimap<String, ImmutableCustomer> customersByName;
+    // keyed by the case-folded city
+    private final ImmutableListMultimap<String, ImmutableCustomer> customersByCity;
+    private final ImmutableListMultimap<String, ImmutableSupplier> suppliersByItem;
+    private final double totalOrderValue;
+
+    ImmutableCompany(Company company)
+    {
+        this.name = company.getName();
+
+        MutableList<Customer> companyCustomers = company.getCustomers();
+        MutableList<ImmutableCustomer> customerCopies = FastList.newList(companyCustomers.size());
+        MutableListMultimap<String, ImmutableCustomer> byName = FastListMultimap.newMultimap();
+        MutableListMultimap<String, ImmutableCustomer> byCity = FastListMultimap.newMultimap();
+        int orderCount = 0;
+        double total = 0.0;
+        for (int i = 0; i < companyCustomers.size(); i++)
+        {
+            Customer customer = companyCustomers.get(i);
+            ImmutableCustomer copy = new ImmutableCustomer(customer);
+            customerCopies.add(copy);
+            byName.put(CaseInsensitiveIndex.fold(customer.getName()), copy);
+            byCity.put(CaseInsensitiveIndex.fold(customer.getCity()), copy);
+            orderCount += copy.getOrders().size();
+            total += copy.getTotalOrderValue();
+        }
+        this.customers = customerCopies.toImmutable();
+        this.customersByName = byName.toImmutable();
+        this.customersByCity = byCity.toImmutable();
+        this.totalOrderValue = total;
+
+        FastList<ImmutableOrder> orderCopies = FastList.newList(orderCount);
+        for (ImmutableCustomer customer : this.customers)
+        {
+            orderCopies.addAll(customer.getOrders().castToList());
+        }
+        this.orders = orderCopies.toImmutable();
+
+        Supplier[] companySuppliers = company.getSupplierSnapshot();
+        MutableList<ImmutableSupplier> supplierCopies = FastList.newList(companySuppliers.length);
+        MutableListMultimap<String, ImmutableSupplier> byItem = FastListMultimap.newMultimap();
+        for (Supplier supplier : companySuppliers)
+        {
+            ImmutableSupplier copy = new ImmutableSupplier(supplier);
+            supplierCopies.add(copy);
+            for (String itemName : supplier.getItemNames())
+            {
+                byItem.put(itemName, copy);
+            }
+        }
+        this.suppliers = supplierCopies.toImmutable();
+        this.suppliersByItem = byItem.toImmutable();
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    public ImmutableList<ImmutableCustomer> getCustomers()
+    {
+        return this.customers;
+    }
+
+    /**
+     * Returns every customer's orders, customer by customer.  The list is built once, when the copy is taken.
+     */
+    public ImmutableList<ImmutableOrder> getOrders()
+    {
+        return this.orders;
+    }
+
+    public ImmutableList<ImmutableSupplier> getSuppliers()
+    {
+        return this.suppliers;
+    }
+
+    public ImmutableCustomer getMostRecentCustomer()
+    {
+        return this.customers.getLast();
+    }
+
+    /**
+     * Returns the first customer with the given name, ignoring case, or null if there is none.
+     */
+    public ImmutableCustomer getCustomerNamed(String name)
+    {
+        ImmutableList<ImmutableCustomer> named = this.getCustomersNamed(name);
+        return named.isEmpty() ? null : named.getFirst();
+    }
+
+    /**
+     * Returns every customer with the given name, ignoring case, in the order they were added.  A null name finds no
+     * one.
+     */
+    public ImmutableList<ImmutableCustomer> getCustomersNamed(String name)
+    {
+        return get(this.customersByName, name);
+    }
+
+    /**
+     * Returns the customers from the given city, ignoring case, in the order they were added.  A null city finds no
+     * one.
+     */
+    public ImmutableList<ImmutableCustomer> getCustomersIn(String city)
+    {
+        return get(this.customersByCity, city);
+    }
+
+    /**
+     * Returns the suppliers of the named item, in the order they were added.
+     */
+    public ImmutableList<ImmutableSupplier> getSuppliersOf(String itemName)
+    {
+        return this.suppliersByItem.get(itemName);
+    }
+
+    /**
+     * The total value of every customer's orders, added up customer by customer.
+     */
+    public double getTotalOrderValue()
+    {
+        return this.totalOrderValue;
+    }
+
+    private static ImmutableList<ImmutableCustomer> get(
+            ImmutableListMultimap<String, ImmutableCustomer> index,
+            String key)
+    {
+        return key == null ? Lists.immutable.<ImmutableCustomer>of() : index.get(CaseInsensitiveIndex.fold(key));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.api.block.function.Function;
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.impl.list.mutable.FastList;
+
+/**
+ * An immutable copy of a {@link Customer} and its orders, taken by {@link Company#toImmutable()}.  The total value of
+ * the orders is the customer's {@link Customer#getTotalOrderValue()} at the time of the copy.
+ */
+public final class ImmutableCustomer
+{
+    public static final Function<ImmutableCustomer, String> TO_NAME =
+            new Function<ImmutableCustomer, String>()
+            {
+                @Override
+                public String valueOf(ImmutableCustomer customer)
+                {
+                    return customer.name;
+                }
+            };
+
+    public static final Function<ImmutableCustomer, Iterable<ImmutableOrder>> TO_ORDERS =
+            new Function<ImmutableCustomer, Iterable<ImmutableOrder>>()
+            {
+                @Override
+                public Iterable<ImmutableOrder> valueOf(ImmutableCustomer customer)
+                {
+                    return customer.orders;
+                }
+            };
+
+    public static final Function<ImmutableCustomer, Double> TO_TOTAL_ORDER_VALUE =
+            new Function<ImmutableCustomer, Double>()
+            {
+                @Override
+                public Double valueOf(ImmutableCustomer customer)
+                {
+                    return customer.totalOrderValue;
+                }
+            };
+
+    private final String name;
+    private final String city;
+    private final ImmutableList<ImmutableOrder> orders;
+    private final double totalOrderValue;
+
+    ImmutableCustomer(Customer customer)
+    {
+        this.name = customer.getName();
+        this.city = customer.getCity();
+        MutableList<Order> customerOrders = customer.getOrders();
+        MutableList<ImmutableOrder> copies = FastList.newList(customerOrders.size());
+        for (int i = 0; i < customerOrders.size(); i++)
+        {
+            copies.add(new ImmutableOrder(this, customerOrders.get(i)));
+        }
+        this.orders = copies.toImmutable();
+        this.totalOrderValue = customer.getTotalOrderValue();
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    public String getCity()
+    {
+        return this.city;
+    }
+
+    public ImmutableList<ImmutableOrder> getOrders()
+    {
+        return this.orders;
+    }
+
+    public double getTotalOrderValue()
+    {
+        return this.totalOrderValue;
+    }
+}
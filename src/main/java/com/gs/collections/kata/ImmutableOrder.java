@@ -0,0 +1,110 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.api.block.function.Function;
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.impl.list.mutable.FastList;
+
+/**
+ * An immutable copy of an {@link Order}, taken by {@link Company#toImmutable()}.  Its line items are an
+ * {@link ImmutableList} of {@link LineItem}s, and its value is computed once, when it is copied.  Whether it has been
+ * delivered is as it was at the time of the copy.
+ */
+public final class ImmutableOrder
+{
+    public static final Function<ImmutableOrder, Double> TO_VALUE =
+            new Function<ImmutableOrder, Double>()
+            {
+                @Override
+                public Double valueOf(ImmutableOrder order)
+                {
+                    return order.value;
+                }
+            };
+
+    public static final Function<ImmutableOrder, Iterable<LineItem>> TO_LINE_ITEMS =
+            new Function<ImmutableOrder, Iterable<LineItem>>()
+            {
+                @Override
+                public Iterable<LineItem> valueOf(ImmutableOrder order)
+                {
+                    return order.lineItems;
+                }
+            };
+
+    private final long orderNumber;
+    private final ImmutableCustomer customer;
+    private final boolean delivered;
+    private final ImmutableList<LineItem> lineItems;
+    private final double value;
+
+    ImmutableOrder(ImmutableCustomer customer, Order order)
+    {
+        this.orderNumber = order.getOrderNumber();
+        this.customer = customer;
+        this.delivered = order.isDelivered();
+        this.lineItems = FastList.newList(order.getLineItems()).toImmutable();
+        this.value = order.getValue();
+    }
+
+    public long getOrderNumber()
+    {
+        return this.orderNumber;
+    }
+
+    public ImmutableCustomer getCustomer()
+    {
+        return this.customer;
+    }
+
+    public boolean isDelivered()
+    {
+        return this.delivered;
+    }
+
+    public ImmutableList<LineItem> getLineItems()
+    {
+        return this.lineItems;
+    }
+
+    public double getValue()
+    {
+        return this.value;
+    }
+
+    /**
+     * Returns true if the order has a line item with the given name, ignoring case.
+     */
+    public boolean containsItem(String itemName)
+    {
+        for (int i = 0; i < this.lineItems.size(); i++)
+        {
+            if (this.lineItems.get(i).getName().equalsIgnoreCase(itemName))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "order " + this.orderNumber + " items: " + this.lineItems.size();
+    }
+}
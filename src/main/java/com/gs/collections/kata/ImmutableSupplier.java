@@ -0,0 +1,67 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.api.block.function.Function;
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.impl.list.mutable.FastList;
+
+/**
+ * An immutable copy of a {@link Supplier}, with its item names in an {@link ImmutableList} rather than an array.
+ */
+public final class ImmutableSupplier
+{
+    public static final Function<ImmutableSupplier, String> TO_NAME =
+            new Function<ImmutableSupplier, String>()
+            {
+                @Override
+                public String valueOf(ImmutableSupplier supplier)
+                {
+                    return supplier.name;
+                }
+            };
+
+    private final String name;
+    private final ImmutableList<String> itemNames;
+
+    ImmutableSupplier(Supplier supplier)
+    {
+        this.name = supplier.getName();
+        this.itemNames = FastList.newListWith(supplier.getItemNames()).toImmutable();
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    public ImmutableList<String> getItemNames()
+    {
+        return this.itemNames;
+    }
+
+    public boolean carries(String itemName)
+    {
+        return this.itemNames.contains(itemName);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.name;
+    }
+}
@@ -16,10 +16,14 @@
 
 package com.gs.collections.kata;
 
+import java.util.Collections;
+
 import com.gs.collections.api.block.function.Function;
 
 /**
- * An Item has a name and a value.
+ * An Item has a name, a quantity and a unit price; its value is the quantity times the unit price.  Line items are
+ * values: an {@link Order} keeps only their columns and hands out fresh instances on request, so two line items are
+ * equal when their names, quantities and unit prices are.
  */
 public class LineItem
 {
@@ -32,33 +36,96 @@ public class LineItem
         }
     };
 
-    private String name;
-    private final double value;
+    /**
+     * Expands a line item into {@code quantity} line items of one unit each.  The units are a single shared instance
+     * repeated, so expanding a large quantity does not create one object per unit.
+     */
+    public static final Function<LineItem, Iterable<LineItem>> TO_UNITS = new Function<LineItem, Iterable<LineItem>>()
+    {
+        @Override
+        public Iterable<LineItem> valueOf(LineItem lineItem)
+        {
+            if (lineItem.quantity == 1)
+            {
+                return Collections.singletonList(lineItem);
+            }
+            return Collections.nCopies(lineItem.quantity, new LineItem(lineItem.name, lineItem.unitPrice));
+        }
+    };
+
+    private final String name;
+    private final int quantity;
+    private final double unitPrice;
 
     public String getName()
     {
         return this.name;
     }
 
-    public void setName(String name)
+    public int getQuantity()
     {
-        this.name = name;
+        return this.quantity;
+    }
+
+    public double getUnitPrice()
+    {
+        return this.unitPrice;
     }
 
     public double getValue()
     {
-        return this.value;
+        return this.quantity * this.unitPrice;
     }
 
     public LineItem(String name, double value)
     {
+        this(name, 1, value);
+    }
+
+    public LineItem(String name, int quantity, double unitPrice)
+    {
+        if (quantity < 1)
+        {
+            throw new IllegalArgumentException("quantity must be positive: " + quantity);
+        }
         this.name = name;
-        this.value = value;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (!(o instanceof LineItem))
+        {
+            return false;
+        }
+        LineItem other = (LineItem) o;
+        return this.quantity == other.quantity
+                && Double.compare(this.unitPrice, other.unitPrice) == 0
+                && (this.name == null ? other.name == null : this.name.equals(other.name));
+    }
+
+    @Override
+    public int hashCode()
+    {
+        long unitPriceBits = Double.doubleToLongBits(this.unitPrice);
+        int result = this.name == null ? 0 : this.name.hashCode();
+        result = 31 * result + this.quantity;
+        return 31 * result + (int) (unitPriceBits ^ (unitPriceBits >>> 32));
     }
 
     @Override
     public String toString()
     {
-        return this.name + " $ " + this.getValue();
+        if (this.quantity == 1)
+        {
+            return this.name + " $ " + this.unitPrice;
+        }
+        return this.quantity + " x " + this.name + " $ " + this.unitPrice;
     }
 }
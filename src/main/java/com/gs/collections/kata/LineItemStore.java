@@ -0,0 +1,53 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+/**
+ * The line items of an {@link Order}, kept as columns of name symbols, quantities and unit prices rather than as
+ * {@link LineItem} objects.  {@link HeapLineItemStore} keeps them in arrays on the heap and
+ * {@link OffHeapLineItemStore} in an {@link OffHeapLineItemArena}.
+ */
+interface LineItemStore
+{
+    void add(String name, int quantity, double unitPrice);
+
+    int size();
+
+    String getName(int index);
+
+    int getQuantity(int index);
+
+    double getUnitPrice(int index);
+
+    double getValue(int index);
+
+    /**
+     * The running total of the line item values.  It is accumulated in insertion order, which gives exactly the same
+     * result as folding the boxed values.
+     */
+    double getTotal();
+
+    /**
+     * Returns true if any line item's name folds to the given symbol.
+     */
+    boolean containsFoldedName(int foldedSymbol);
+
+    /**
+     * Returns the total quantity of the line items whose names fold to the given symbol.
+     */
+    int getQuantityOfFoldedName(int foldedSymbol);
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+/**
+ * A result kept up to date from a {@link Company}'s {@link CompanyListener change events}, so reading it never
+ * re-runs a query over the whole company.  {@link #attachTo(Company)} builds the view from the company's current
+ * customers once; from then on each change costs only the work for that change.
+ * <p/>
+ * Subclasses override the events they need and guard their state with the view's own lock, as events can arrive on
+ * any thread that changes the company while other threads read the view.
+ */
+public abstract class MaterializedView implements CompanyListener
+{
+    /**
+     * Registers the view with the company and replays the company's current customers into it as
+     * {@link #customerAdded(Customer)} events.  No customer can be added between the two, so each is seen exactly
+     * once.
+     */
+    public void attachTo(Company company)
+    {
+        company.addListenerAndReplay(this);
+    }
+
+    @Override
+    public void customerAdded(Customer customer)
+    {
+    }
+
+    @Override
+    public void orderAdded(Order order)
+    {
+    }
+
+    @Override
+    public void lineItemAdded(Order order, String itemName, int quantity, double unitPrice)
+    {
+    }
+
+    @Override
+    public void orderDelivered(Order order)
+    {
+    }
+}
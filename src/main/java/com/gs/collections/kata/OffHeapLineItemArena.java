@@ -0,0 +1,119 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Direct memory for the line items of many {@link Order}s, so that very large order books put no line item data on
+ * the heap.  Create orders in the arena with {@link Company#newOrder(int)} on a company made with
+ * {@link Company#Company(String, OffHeapLineItemArena)}, or with
+ * {@link Order#Order(OrderNumberAllocator, OffHeapLineItemArena, int)}.
+ * <p/>
+ * Each line item is a 16 byte record: name symbol, quantity and unit price.  The arena hands out runs of records from
+ * direct {@link ByteBuffer} chunks by bumping a pointer; space is never reused, so an order that outgrows its run
+ * leaves the old run behind.  Size orders up front where the number of line items is known.
+ * <p/>
+ * Once the arena is {@link #close() closed} it lets go of its chunks and any order stored in it throws
+ * {@link IllegalStateException} when its line items are read or added.  The direct memory is returned when the chunks
+ * are garbage collected.  Do not close an arena while other threads are still using its orders.
+ */
+public final class OffHeapLineItemArena implements Closeable
+{
+    static final int RECORD_SIZE = 16;
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+    private static final ByteBuffer[] CLOSED = new ByteBuffer[0];
+
+    private final int recordsPerChunk;
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private int nextRecord;
+
+    public OffHeapLineItemArena()
+    {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public OffHeapLineItemArena(int chunkSize)
+    {
+        if (chunkSize < RECORD_SIZE)
+        {
+            throw new IllegalArgumentException("chunkSize must hold at least one line item: " + chunkSize);
+        }
+        this.recordsPerChunk = chunkSize / RECORD_SIZE;
+    }
+
+    /**
+     * Reserves a run of {@code records} records in a single chunk and returns its address: the chunk index in the high
+     * 32 bits and the byte offset in the chunk in the low 32 bits.
+     */
+    synchronized long allocate(int records)
+    {
+        if (records > this.recordsPerChunk)
+        {
+            throw new IllegalArgumentException(records + " line items do not fit in a chunk of " + this.recordsPerChunk);
+        }
+        ByteBuffer[] current = this.openChunks();
+        if (current.length == 0 || this.nextRecord + records > this.recordsPerChunk)
+        {
+            ByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = ByteBuffer.allocateDirect(this.recordsPerChunk * RECORD_SIZE);
+            this.chunks = grown;
+            current = grown;
+            this.nextRecord = 0;
+        }
+        long address = ((long) (current.length - 1) << 32) | (this.nextRecord * RECORD_SIZE);
+        this.nextRecord += records;
+        return address;
+    }
+
+    ByteBuffer chunk(long address)
+    {
+        return this.openChunks()[(int) (address >>> 32)];
+    }
+
+    /**
+     * The number of bytes of direct memory the arena holds, including space left behind by orders that grew.
+     */
+    public long getAllocatedBytes()
+    {
+        return (long) this.chunks.length * this.recordsPerChunk * RECORD_SIZE;
+    }
+
+    public boolean isClosed()
+    {
+        return this.chunks == CLOSED;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        this.chunks = CLOSED;
+    }
+
+    private ByteBuffer[] openChunks()
+    {
+        ByteBuffer[] current = this.chunks;
+        if (current == CLOSED)
+        {
+            throw new IllegalStateException("The line item arena has been closed");
+        }
+        return current;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The line items of one {@link Order}, stored as a run of fixed-width records in an {@link OffHeapLineItemArena}.
+ * The store itself is the only heap object an order's line items need; it keeps the running total alongside the
+ * address of its run.  When the run fills up, a run half as large again is allocated and the records copied across.
+ */
+final class OffHeapLineItemStore implements LineItemStore
+{
+    private static final int QUANTITY = 4;
+    private static final int UNIT_PRICE = 8;
+
+    private final OffHeapLineItemArena arena;
+    private long address;
+    private int capacity;
+    private int size;
+    private double total;
+
+    OffHeapLineItemStore(OffHeapLineItemArena arena, int initialCapacity)
+    {
+        this.arena = arena;
+        this.capacity = Math.max(initialCapacity, 1);
+        this.address = arena.allocate(this.capacity);
+    }
+
+    @Override
+    public void add(String name, int quantity, double unitPrice)
+    {
+        if (this.size == this.capacity)
+        {
+            this.grow();
+        }
+        ByteBuffer chunk = this.arena.chunk(this.address);
+        int offset = this.offset(this.size);
+        chunk.putInt(offset, SymbolTable.GLOBAL.intern(name));
+        chunk.putInt(offset + QUANTITY, quantity);
+        chunk.putDouble(offset + UNIT_PRICE, unitPrice);
+        this.size++;
+        this.total += quantity * unitPrice;
+    }
+
+    @Override
+    public int size()
+    {
+        return this.size;
+    }
+
+    @Override
+    public String getName(int index)
+    {
+        return SymbolTable.GLOBAL.valueOf(this.arena.chunk(this.address).getInt(this.offset(index)));
+    }
+
+    @Override
+    public int getQuantity(int index)
+    {
+        return this.arena.chunk(this.address).getInt(this.offset(index) + QUANTITY);
+    }
+
+    @Override
+    public double getUnitPrice(int index)
+    {
+        return this.arena.chunk(this.address).getDouble(this.offset(index) + UNIT_PRICE);
+    }
+
+    @Override
+    public double getValue(int index)
+    {
+        ByteBuffer chunk = this.arena.chunk(this.address);
+        int offset = this.offset(index);
+        return chunk.getInt(offset + QUANTITY) * chunk.getDouble(offset + UNIT_PRICE);
+    }
+
+    /**
+     * The total is kept on the heap, so valuing an order does not touch the arena.
+     */
+    @Override
+    public double getTotal()
+    {
+        return this.total;
+    }
+
+    @Override
+    public boolean containsFoldedName(int foldedSymbol)
+    {
+        SymbolTable symbols = SymbolTable.GLOBAL;
+        ByteBuffer chunk = this.arena.chunk(this.address);
+        for (int i = 0; i < this.size; i++)
+        {
+            if (symbols.fold(chunk.getInt(this.offset(i))) == foldedSymbol)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getQuantityOfFoldedName(int foldedSymbol)
+    {
+        SymbolTable symbols = SymbolTable.GLOBAL;
+        ByteBuffer chunk = this.arena.chunk(this.address);
+        int quantity = 0;
+        for (int i = 0; i < this.size; i++)
+        {
+            int offset = this.offset(i);
+            if (symbols.fold(chunk.getInt(offset)) == foldedSymbol)
+            {
+                quantity += chunk.getInt(offset + QUANTITY);
+            }
+        }
+        return quantity;
+    }
+
+    private int offset(int index)
+    {
+        return (int) this.address + index * OffHeapLineItemArena.RECORD_SIZE;
+    }
+
+    private void grow()
+    {
+        int newCapacity = this.capacity + (this.capacity >> 1) + 1;
+        long newAddress = this.arena.allocate(newCapacity);
+        ByteBuffer from = this.arena.chunk(this.address).duplicate();
+        from.limit(this.offset(this.size)).position(this.offset(0));
+        ByteBuffer to = this.arena.chunk(newAddress).duplicate();
+        to.position((int) newAddress);
+        to.put(from);
+        this.address = newAddress;
+        this.capacity = newCapacity;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The call count, latency histogram and total result size of one domain operation, recorded on {@link StripedCounter}
+ * style stripes so that threads calling the same operation do not contend.  Latencies go into power of two buckets.
+ * <p/>
+ * Operations record themselves through {@link CompanyMetrics}; see there for turning recording on and off.
+ */
+public final class OperationMetrics implements OperationMetricsMBean
+{
+    static final int BUCKETS = 64;
+
+    private final String operation;
+    private final StripedCounter calls = new StripedCounter();
+    private final StripedCounter latency = new StripedCounter();
+    private final StripedCounter resultSize = new StripedCounter();
+    // a row of buckets per stripe; rows are far enough apart not to share cache lines
+    private final AtomicLongArray histogram = new AtomicLongArray(StripedCounter.STRIPES * BUCKETS);
+
+    OperationMetrics(String operation)
+    {
+        this.operation = operation;
+    }
+
+    /**
+     * Records a call that started at {@code startNanos}, as returned by {@link CompanyMetrics#start()}.  Does nothing
+     * if recording was off when the call started.
+     */
+    void record(long startNanos, long size)
+    {
+        if (startNanos != CompanyMetrics.NOT_RECORDING)
+        {
+            long nanos = Math.max(0L, System.nanoTime() - startNanos);
+            this.calls.add(1L);
+            this.latency.add(nanos);
+            this.resultSize.add(size);
+            this.histogram.getAndIncrement(StripedCounter.stripe() * BUCKETS + bucket(nanos));
+        }
+    }
+
+    static int bucket(long nanos)
+    {
+        return Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(nanos));
+    }
+
+    @Override
+    public String getOperation()
+    {
+        return this.operation;
+    }
+
+    @Override
+    public long getCallCount()
+    {
+        return this.calls.sum();
+    }
+
+    @Override
+    public long getTotalLatencyNanos()
+    {
+        return this.latency.sum();
+    }
+
+    @Override
+    public double getMeanLatencyNanos()
+    {
+        long count = this.getCallCount();
+        return count == 0L ? 0.0 : (double) this.getTotalLatencyNanos() / count;
+    }
+
+    @Override
+    public long getMedianLatencyNanos()
+    {
+        return this.percentile(0.5);
+    }
+
+    @Override
+    public long getP99LatencyNanos()
+    {
+        return this.percentile(0.99);
+    }
+
+    @Override
+    public long[] getLatencyHistogram()
+    {
+        long[] result = new long[BUCKETS];
+        for (int i = 0; i < this.histogram.length(); i++)
+        {
+            result[i % BUCKETS] += this.histogram.get(i);
+        }
+        return result;
+    }
+
+    @Override
+    public long getTotalResultSize()
+    {
+        return this.resultSize.sum();
+    }
+
+    @Override
+    public double getMeanResultSize()
+    {
+        long count = this.getCallCount();
+        return count == 0L ? 0.0 : (double) this.getTotalResultSize() / count;
+    }
+
+    @Override
+    public void reset()
+    {
+        this.calls.reset();
+        this.latency.reset();
+        this.resultSize.reset();
+        for (int i = 0; i < this.histogram.length(); i++)
+        {
+            this.histogram.set(i, 0L);
+        }
+    }
+
+    private long percentile(double fraction)
+    {
+        long[] buckets = this.getLatencyHistogram();
+        long total = 0L;
+        for (long each : buckets)
+        {
+            total += each;
+        }
+        long target = (long) Math.ceil(total * fraction);
+        long seen = 0L;
+        for (int i = 0; i < buckets.length; i++)
+        {
+            seen += buckets[i];
+            if (seen >= target && seen > 0L)
+            {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << i;
+            }
+        }
+        return 0L;
+    }
+}
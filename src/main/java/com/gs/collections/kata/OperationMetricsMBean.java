@@ -0,0 +1,53 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+/**
+ * The JMX view of an {@link OperationMetrics}.
+ */
+public interface OperationMetricsMBean
+{
+    String getOperation();
+
+    long getCallCount();
+
+    long getTotalLatencyNanos();
+
+    double getMeanLatencyNanos();
+
+    /**
+     * The upper bound of the latency bucket holding the median call.
+     */
+    long getMedianLatencyNanos();
+
+    /**
+     * The upper bound of the latency bucket holding the 99th percentile call.
+     */
+    long getP99LatencyNanos();
+
+    /**
+     * The number of calls in each latency bucket; bucket {@code b} counts calls that took less than {@code 2^b}
+     * nanoseconds and at least {@code 2^(b - 1)}.
+     */
+    long[] getLatencyHistogram();
+
+    long getTotalResultSize();
+
+    double getMeanResultSize();
+
+    void reset();
+}
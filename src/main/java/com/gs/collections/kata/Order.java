@@ -16,19 +16,25 @@
 
 package com.gs.collections.kata;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+import com.gs.collections.api.LazyIterable;
 import com.gs.collections.api.block.function.Function;
+import com.gs.collections.api.block.function.Function2;
 import com.gs.collections.api.block.predicate.Predicate;
-import com.gs.collections.impl.block.function.AddFunction;
-import com.gs.collections.impl.collection.mutable.CollectionAdapter;
-import com.gs.collections.impl.utility.Iterate;
+import com.gs.collections.api.block.predicate.Predicate2;
+import com.gs.collections.api.block.procedure.primitive.ObjectDoubleProcedure;
+import com.gs.collections.impl.utility.LazyIterate;
 
 /**
  * Has a number, a {@link Customer}, a {@link List} of {@link LineItem}s, and a boolean that states whether or not the order
- * has been delivered.  There is a class variable that contains the next order number.
+ * has been delivered.  Order numbers come from an {@link OrderNumberAllocator}, by default a global one.
+ * <p/>
+ * Line items are stored column-wise in a {@link LineItemStore}, on the heap or in an {@link OffHeapLineItemArena};
+ * {@link #getLineItems()} is a view over those columns.  The order's value is rolled up as line items are added, and the owning {@link Customer} is told when it changes.
  */
 public class Order
 {
@@ -47,7 +53,7 @@ public class Order
         @Override
         public boolean accept(Order order)
         {
-            return order.isDelivered;
+            return order.isDelivered();
         }
     };
 
@@ -57,45 +63,321 @@ public class Order
                 @Override
                 public Iterable<LineItem> valueOf(Order order)
                 {
-                    return order.lineItems;
+                    return order.getLineItems();
                 }
             };
 
-    private static int nextOrderNumber = 1;
+    /**
+     * The names of the order's line items, read straight from the columns without creating {@link LineItem}s.
+     */
+    public static final Function<Order, Iterable<String>> TO_LINE_ITEM_NAMES =
+            new Function<Order, Iterable<String>>()
+            {
+                @Override
+                public Iterable<String> valueOf(Order order)
+                {
+                    return order.getLineItemNames();
+                }
+            };
+
+    /**
+     * Accepts orders worth more than the parameter.
+     */
+    public static final Predicate2<Order, Double> VALUE_ABOVE = new Predicate2<Order, Double>()
+    {
+        @Override
+        public boolean accept(Order order, Double value)
+        {
+            return order.getValue() > value.doubleValue();
+        }
+    };
+
+    /**
+     * Accepts orders with a line item of the named item, ignoring case, see {@link #containsItem(String)}.
+     */
+    public static final Predicate2<Order, String> CONTAINS_ITEM = new Predicate2<Order, String>()
+    {
+        @Override
+        public boolean accept(Order order, String itemName)
+        {
+            return order.containsItem(itemName);
+        }
+    };
+
+    /**
+     * Accepts orders with a line item whose name folds to the given {@link SymbolTable} symbol.  Callers resolve the
+     * name once for the whole query and pass the symbol, so each line item is checked with an int comparison.
+     */
+    static final Predicate2<Order, Integer> CONTAINS_ITEM_SYMBOL = new Predicate2<Order, Integer>()
+    {
+        @Override
+        public boolean accept(Order order, Integer foldedSymbol)
+        {
+            return order.lineItems.containsFoldedName(foldedSymbol.intValue());
+        }
+    };
+
+    /**
+     * The quantity of the named item in the order, see {@link #getQuantityOf(String)}.
+     */
+    public static final Function2<Order, String, Integer> TO_QUANTITY_OF =
+            new Function2<Order, String, Integer>()
+            {
+                @Override
+                public Integer value(Order order, String itemName)
+                {
+                    return order.getQuantityOf(itemName);
+                }
+            };
+
+    private final long orderNumber;
+    private final LineItemStore lineItems;
+    private final List<LineItem> lineItemsView = new LineItemList();
+    private static final AtomicIntegerFieldUpdater<Order> DELIVERED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(Order.class, "delivered");
 
-    private final int orderNumber;
-    private final List<LineItem> lineItems = new ArrayList<LineItem>();
-    private boolean isDelivered;
+    private volatile int delivered;
+    // the order's slot in its company's DeliveryIndex, or -1 until the company knows about it
+    private volatile int deliverySlot = -1;
+    private Customer customer;
 
     public Order()
     {
-        this.orderNumber = nextOrderNumber;
-        nextOrderNumber += 1;
+        this(OrderNumberAllocator.GLOBAL);
+    }
+
+    public Order(OrderNumberAllocator orderNumbers)
+    {
+        this(orderNumbers.next(), new HeapLineItemStore());
+    }
+
+    /**
+     * Creates an order with room for {@code expectedLineItems} line items, so loading them never grows the columns.
+     */
+    public Order(OrderNumberAllocator orderNumbers, int expectedLineItems)
+    {
+        this(orderNumbers.next(), new HeapLineItemStore(expectedLineItems));
+    }
+
+    /**
+     * Creates an order that keeps its line items off the heap, in the arena, with room for {@code expectedLineItems}.
+     */
+    public Order(OrderNumberAllocator orderNumbers, OffHeapLineItemArena arena, int expectedLineItems)
+    {
+        this(orderNumbers.next(), new OffHeapLineItemStore(arena, expectedLineItems));
+    }
+
+    /**
+     * Recreates an order that was numbered elsewhere, e.g. one read back from a {@link CompanySnapshot}.
+     */
+    Order(long orderNumber, int expectedLineItems)
+    {
+        this(orderNumber, new HeapLineItemStore(expectedLineItems));
+    }
+
+    private Order(long orderNumber, LineItemStore lineItems)
+    {
+        this.orderNumber = orderNumber;
+        this.lineItems = lineItems;
     }
 
     public static void resetNextOrderNumber()
     {
-        nextOrderNumber = 1;
+        OrderNumberAllocator.GLOBAL.reset();
+    }
+
+    public long getOrderNumber()
+    {
+        return this.orderNumber;
     }
 
     public void deliver()
     {
-        this.isDelivered = true;
+        this.tryDeliver();
+    }
+
+    /**
+     * Atomically moves the order from pending to delivered.  Returns true if this call delivered it, or false if it had
+     * already been delivered, so when several threads deliver the same order exactly one of them gets true.
+     */
+    public boolean tryDeliver()
+    {
+        Company company = this.getCompany();
+        if (company == null)
+        {
+            return this.markDelivered();
+        }
+        if (company.beginChange())
+        {
+            try
+            {
+                return this.markDelivered();
+            }
+            finally
+            {
+                company.endChange();
+            }
+        }
+        synchronized (company.getChangeLock())
+        {
+            return this.markDelivered();
+        }
+    }
+
+    private boolean markDelivered()
+    {
+        if (!DELIVERED_UPDATER.compareAndSet(this, 0, 1))
+        {
+            return false;
+        }
+        if (this.customer != null)
+        {
+            this.customer.orderDelivered(this);
+        }
+        return true;
     }
 
     public boolean isDelivered()
     {
-        return this.isDelivered;
+        return this.delivered != 0;
+    }
+
+    int getDeliverySlot()
+    {
+        return this.deliverySlot;
+    }
+
+    void setDeliverySlot(int deliverySlot)
+    {
+        this.deliverySlot = deliverySlot;
     }
 
     public void addLineItem(LineItem aLineItem)
     {
-        this.lineItems.add(aLineItem);
+        this.addLineItem(aLineItem.getName(), aLineItem.getQuantity(), aLineItem.getUnitPrice());
     }
 
+    public void addLineItem(String name, double value)
+    {
+        this.addLineItem(name, 1, value);
+    }
+
+    /**
+     * Adds a single line item for {@code quantity} units of the named item, however large the quantity.
+     */
+    public void addLineItem(String name, int quantity, double unitPrice)
+    {
+        if (quantity < 1)
+        {
+            throw new IllegalArgumentException("quantity must be positive: " + quantity);
+        }
+        Company company = this.getCompany();
+        if (company == null)
+        {
+            this.appendLineItem(name, quantity, unitPrice);
+        }
+        else if (company.beginChange())
+        {
+            try
+            {
+                this.appendLineItem(name, quantity, unitPrice);
+            }
+            finally
+            {
+                company.endChange();
+            }
+        }
+        else
+        {
+            synchronized (company.getChangeLock())
+            {
+                this.appendLineItem(name, quantity, unitPrice);
+            }
+        }
+    }
+
+    private void appendLineItem(String name, int quantity, double unitPrice)
+    {
+        this.lineItems.add(name, quantity, unitPrice);
+        if (this.customer != null)
+        {
+            this.customer.lineItemAdded(this, name, quantity, unitPrice);
+        }
+    }
+
+    /**
+     * Returns true if the order has a line item with the given name, ignoring case.  The name is resolved to a symbol
+     * once; each line item is then checked with an int comparison.
+     */
+    public boolean containsItem(String itemName)
+    {
+        int symbol = itemName == null ? -1 : SymbolTable.GLOBAL.lookupFolded(itemName);
+        return symbol >= 0 && this.lineItems.containsFoldedName(symbol);
+    }
+
+    /**
+     * Returns the total quantity of the named item over the order's line items, ignoring case, or 0 if it has none.
+     * The name is resolved to a symbol once; each line item is then checked with an int comparison.
+     */
+    public int getQuantityOf(String itemName)
+    {
+        int symbol = itemName == null ? -1 : SymbolTable.GLOBAL.lookupFolded(itemName);
+        return symbol < 0 ? 0 : this.lineItems.getQuantityOfFoldedName(symbol);
+    }
+
+    /**
+     * A live view of this order's line items.  Elements are created on access; appending through the view is the same
+     * as calling {@link #addLineItem(LineItem)}.
+     */
     public List<LineItem> getLineItems()
     {
-        return this.lineItems;
+        return this.lineItemsView;
+    }
+
+    /**
+     * A live view of the names of this order's line items.  The names are the shared {@link SymbolTable} strings, so
+     * iterating the view creates no objects.
+     */
+    public List<String> getLineItemNames()
+    {
+        return new LineItemNameList();
+    }
+
+    /**
+     * Passes the name and value of each line item to the procedure, straight from the columns, without creating any
+     * {@link LineItem}s.
+     */
+    void forEachLineItemValue(ObjectDoubleProcedure<? super String> procedure)
+    {
+        for (int i = 0; i < this.lineItems.size(); i++)
+        {
+            procedure.value(this.lineItems.getName(i), this.lineItems.getValue(i));
+        }
+    }
+
+    /**
+     * A lazy view of this order with every line item expanded into line items of one unit each.
+     *
+     * @see LineItem#TO_UNITS
+     */
+    public LazyIterable<LineItem> unitLineItemsView()
+    {
+        return LazyIterate.adapt(this.lineItemsView).flatCollect(LineItem.TO_UNITS);
+    }
+
+    private Company getCompany()
+    {
+        return this.customer == null ? null : this.customer.getCompany();
+    }
+
+    public Customer getCustomer()
+    {
+        return this.customer;
+    }
+
+    void setCustomer(Customer customer)
+    {
+        this.customer = customer;
     }
 
     @Override
@@ -106,15 +388,79 @@ public class Order
 
     public double getValue()
     {
-        Collection<Double> itemValues = Iterate.collect(this.lineItems, new Function<LineItem, Double>()
+        long start = CompanyMetrics.start();
+        Object trace = DomainTracing.beginOrderValue();
+        double value = this.lineItems.getTotal();
+        CompanyMetrics.GET_VALUE.record(start, this.lineItems.size());
+        DomainTracing.endOrderValue(trace, this.orderNumber, this.lineItems.size());
+        return value;
+    }
+
+    /**
+     * The value, without recording metrics or traces, for the customer's own bookkeeping.
+     */
+    double getRolledUpValue()
+    {
+        return this.lineItems.getTotal();
+    }
+
+    int getLineItemCount()
+    {
+        return this.lineItems.size();
+    }
+
+    private final class LineItemList
+            extends AbstractList<LineItem>
+            implements RandomAccess
+    {
+        @Override
+        public LineItem get(int index)
         {
-            @Override
-            public Double valueOf(LineItem lineItem)
+            LineItemStore store = Order.this.lineItems;
+            if (index < 0 || index >= store.size())
             {
-                return lineItem.getValue();
+                throw new IndexOutOfBoundsException("Index: " + index + " Size: " + store.size());
             }
-        });
+            return new LineItem(store.getName(index), store.getQuantity(index), store.getUnitPrice(index));
+        }
 
-        return CollectionAdapter.adapt(itemValues).injectInto(0.0, AddFunction.DOUBLE_TO_DOUBLE);
+        @Override
+        public void add(int index, LineItem lineItem)
+        {
+            if (index != this.size())
+            {
+                throw new UnsupportedOperationException("Line items can only be appended to an order");
+            }
+            Order.this.addLineItem(lineItem);
+            this.modCount++;
+        }
+
+        @Override
+        public int size()
+        {
+            return Order.this.lineItems.size();
+        }
+    }
+
+    private final class LineItemNameList
+            extends AbstractList<String>
+            implements RandomAccess
+    {
+        @Override
+        public String get(int index)
+        {
+            LineItemStore store = Order.this.lineItems;
+            if (index < 0 || index >= store.size())
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + " Size: " + store.size());
+            }
+            return store.getName(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return Order.this.lineItems.size();
+        }
     }
 }
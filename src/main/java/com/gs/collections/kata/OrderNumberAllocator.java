@@ -0,0 +1,107 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out unique 64-bit order numbers.  Each thread reserves a block of numbers with a single atomic add and then
+ * allocates from its block without any further synchronization, so threads creating orders in parallel do not contend.
+ * Numbers are unique but only increase within a thread; a single thread sees 1, 2, 3 and so on.
+ * <p/>
+ * {@link Order#Order()} draws from a global allocator.  A {@link Company} has its own, used by
+ * {@link Company#newOrder()}.
+ */
+public final class OrderNumberAllocator
+{
+    static final OrderNumberAllocator GLOBAL = new OrderNumberAllocator();
+
+    private static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private final int blockSize;
+    private final AtomicLong nextBlockStart = new AtomicLong(1L);
+    private volatile int generation;
+    private final ThreadLocal<Block> blocks = new ThreadLocal<Block>()
+    {
+        @Override
+        protected Block initialValue()
+        {
+            return new Block();
+        }
+    };
+
+    public OrderNumberAllocator()
+    {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    public OrderNumberAllocator(int blockSize)
+    {
+        if (blockSize < 1)
+        {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+    }
+
+    public long next()
+    {
+        Block block = this.blocks.get();
+        int currentGeneration = this.generation;
+        if (block.next == block.end || block.generation != currentGeneration)
+        {
+            long start = this.nextBlockStart.getAndAdd(this.blockSize);
+            block.next = start;
+            block.end = start + this.blockSize;
+            block.generation = currentGeneration;
+        }
+        return block.next++;
+    }
+
+    /**
+     * Starts numbering again from 1.  Blocks already reserved by other threads are abandoned on their next allocation.
+     * Numbers handed out by threads racing with a reset may repeat numbers handed out after it.
+     */
+    public synchronized void reset()
+    {
+        // reset the counter before publishing the new generation, so a thread that sees the new generation can only
+        // reserve its block from the restarted counter
+        this.nextBlockStart.set(1L);
+        this.generation++;
+    }
+
+    /**
+     * Makes sure numbers handed out from now on are greater than {@code orderNumber}, for example after loading orders
+     * that were numbered elsewhere.  Blocks already reserved by other threads are abandoned on their next allocation.
+     */
+    synchronized void advancePast(long orderNumber)
+    {
+        long current = this.nextBlockStart.get();
+        while (current <= orderNumber && !this.nextBlockStart.compareAndSet(current, orderNumber + 1L))
+        {
+            current = this.nextBlockStart.get();
+        }
+        this.generation++;
+    }
+
+    private static final class Block
+    {
+        private long next;
+        private long end;
+        private int generation = -1;
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.gs.collections.api.block.procedure.primitive.ObjectDoubleProcedure;
+import com.gs.collections.api.list.ListIterable;
+import com.gs.collections.api.map.MutableMap;
+import com.gs.collections.impl.map.mutable.UnifiedMap;
+import com.gs.collections.impl.map.mutable.primitive.ObjectDoubleHashMap;
+
+/**
+ * Aggregates order values across a {@link Company} on a {@link ForkJoinPool}.  The customers are split into
+ * contiguous batches holding roughly the same number of orders; each batch is aggregated into its own primitive
+ * partial map and the partials are merged pairwise on the way back up.
+ * <p/>
+ * The results hold the same keys as the serial {@code aggregateBy} calls in {@code Exercise9Test}.  Totals are kept
+ * with compensated (Neumaier) summation and the partials are merged in a fixed order, left batch before right, so a
+ * given company and batch size always give the same totals however the pool schedules the batches.  Where the serial
+ * fold loses precision to rounding the compensated total can be closer to the exact sum, and so differ from the
+ * serial total in the last place; where every partial sum is exact, as in the exercises, the totals are the same.
+ */
+public final class ParallelAggregator
+{
+    private static final int DEFAULT_ORDERS_PER_BATCH = 4096;
+
+    private final ForkJoinPool pool;
+    private final int ordersPerBatch;
+
+    public ParallelAggregator(ForkJoinPool pool)
+    {
+        this(pool, DEFAULT_ORDERS_PER_BATCH);
+    }
+
+    public ParallelAggregator(ForkJoinPool pool, int ordersPerBatch)
+    {
+        if (ordersPerBatch < 1)
+        {
+            throw new IllegalArgumentException("ordersPerBatch must be positive: " + ordersPerBatch);
+        }
+        this.pool = pool;
+        this.ordersPerBatch = ordersPerBatch;
+    }
+
+    /**
+     * Parallel equivalent of {@code getCustomers().aggregateBy(TO_CITY, 0.0, total + getTotalOrderValue())}.
+     */
+    public MutableMap<String, Double> totalOrderValuesByCity(Company company)
+    {
+        return this.aggregate(company, ByCity.INSTANCE);
+    }
+
+    /**
+     * Parallel equivalent of aggregating {@link LineItem#getValue()} by {@link LineItem#getName()} over every order.
+     */
+    public MutableMap<String, Double> totalOrderValuesByItem(Company company)
+    {
+        return this.aggregate(company, ByItem.INSTANCE);
+    }
+
+    private MutableMap<String, Double> aggregate(Company company, CustomerAggregation aggregation)
+    {
+        ListIterable<Customer> customers = company.getCustomers().toList();
+        long[] cumulativeOrderCounts = new long[customers.size() + 1];
+        for (int i = 0; i < customers.size(); i++)
+        {
+            cumulativeOrderCounts[i + 1] = cumulativeOrderCounts[i] + customers.get(i).getOrders().size();
+        }
+
+        Partial totals = this.pool.invoke(
+                new AggregationTask(customers, cumulativeOrderCounts, 0, customers.size(), aggregation, this.ordersPerBatch));
+        return totals.toMap();
+    }
+
+    private interface CustomerAggregation
+    {
+        void aggregate(ListIterable<Customer> customers, int from, int to, Partial partial);
+    }
+
+    private enum ByCity implements CustomerAggregation
+    {
+        INSTANCE;
+
+        @Override
+        public void aggregate(ListIterable<Customer> customers, int from, int to, Partial partial)
+        {
+            for (int i = from; i < to; i++)
+            {
+                Customer customer = customers.get(i);
+                partial.add(customer.getCity(), customer.getTotalOrderValue());
+            }
+        }
+    }
+
+    private enum ByItem implements CustomerAggregation
+    {
+        INSTANCE;
+
+        @Override
+        public void aggregate(
+                ListIterable<Customer> customers,
+                int from,
+                int to,
+                final Partial partial)
+        {
+            ObjectDoubleProcedure<String> addToPartial = new ObjectDoubleProcedure<String>()
+            {
+                @Override
+                public void value(String itemName, double value)
+                {
+                    partial.add(itemName, value);
+                }
+            };
+            for (int i = from; i < to; i++)
+            {
+                for (Order order : customers.get(i).getOrders())
+                {
+                    order.forEachLineItemValue(addToPartial);
+                }
+            }
+        }
+    }
+
+    private static final class AggregationTask extends RecursiveTask<Partial>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final ListIterable<Customer> customers;
+        private final long[] cumulativeOrderCounts;
+        private final int from;
+        private final int to;
+        private final CustomerAggregation aggregation;
+        private final int ordersPerBatch;
+
+        private AggregationTask(
+                ListIterable<Customer> customers,
+                long[] cumulativeOrderCounts,
+                int from,
+                int to,
+                CustomerAggregation aggregation,
+                int ordersPerBatch)
+        {
+            this.customers = customers;
+            this.cumulativeOrderCounts = cumulativeOrderCounts;
+            this.from = from;
+            this.to = to;
+            this.aggregation = aggregation;
+            this.ordersPerBatch = ordersPerBatch;
+        }
+
+        @Override
+        protected Partial compute()
+        {
+            long orderCount = this.cumulativeOrderCounts[this.to] - this.cumulativeOrderCounts[this.from];
+            if (this.to - this.from <= 1 || orderCount <= this.ordersPerBatch)
+            {
+                Partial partial = new Partial();
+                this.aggregation.aggregate(this.customers, this.from, this.to, partial);
+                return partial;
+            }
+
+            int middle = this.splitPoint(this.cumulativeOrderCounts[this.from] + orderCount / 2);
+            AggregationTask left = new AggregationTask(
+                    this.customers, this.cumulativeOrderCounts, this.from, middle, this.aggregation, this.ordersPerBatch);
+            AggregationTask right = new AggregationTask(
+                    this.customers, this.cumulativeOrderCounts, middle, this.to, this.aggregation, this.ordersPerBatch);
+            right.fork();
+            Partial leftTotals = left.compute();
+            Partial rightTotals = right.join();
+            leftTotals.addAll(rightTotals);
+            return leftTotals;
+        }
+
+        /**
+         * Finds the first customer whose orders take the running order count past the target, keeping both halves
+         * non-empty.
+         */
+        private int splitPoint(long target)
+        {
+            int low = this.from + 1;
+            int high = this.to - 1;
+            while (low < high)
+            {
+                int middle = (low + high) >>> 1;
+                if (this.cumulativeOrderCounts[middle] < target)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Per key totals with a Neumaier compensation term each, which holds the low order bits that rounding dropped from
+     * the running sum.
+     */
+    private static final class Partial
+    {
+        private final ObjectDoubleHashMap<String> sums = new ObjectDoubleHashMap<String>();
+        private final ObjectDoubleHashMap<String> compensations = new ObjectDoubleHashMap<String>();
+
+        private void add(String key, double value)
+        {
+            double sum = this.sums.get(key);
+            double newSum = sum + value;
+            double lost = Math.abs(sum) >= Math.abs(value) ? (sum - newSum) + value : (value - newSum) + sum;
+            this.sums.put(key, newSum);
+            if (lost != 0.0)
+            {
+                this.compensations.put(key, this.compensations.get(key) + lost);
+            }
+        }
+
+        private void addAll(Partial other)
+        {
+            other.sums.forEachKeyValue(new ObjectDoubleProcedure<String>()
+            {
+                @Override
+                public void value(String key, double sum)
+                {
+                    Partial.this.add(key, sum);
+                }
+            });
+            other.compensations.forEachKeyValue(new ObjectDoubleProcedure<String>()
+            {
+                @Override
+                public void value(String key, double compensation)
+                {
+                    Partial.this.compensations.put(key, Partial.this.compensations.get(key) + compensation);
+                }
+            });
+        }
+
+        private MutableMap<String, Double> toMap()
+        {
+            final MutableMap<String, Double> result = UnifiedMap.newMap(this.sums.size());
+            this.sums.forEachKeyValue(new ObjectDoubleProcedure<String>()
+            {
+                @Override
+                public void value(String key, double sum)
+                {
+                    result.put(key, sum + Partial.this.compensations.get(key));
+                }
+            });
+            return result;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.gs.collections.api.block.function.Function;
+import com.gs.collections.api.block.function.primitive.DoubleFunction;
+import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.block.procedure.Procedure;
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.api.multimap.list.MutableListMultimap;
+import com.gs.collections.api.set.MutableSet;
+import com.gs.collections.impl.block.factory.Predicates;
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.multimap.list.FastListMultimap;
+import com.gs.collections.impl.set.mutable.UnifiedSet;
+
+/**
+ * A query over the {@link Company} domain whose select, reject, collect, collectIf and flatCollect steps are fused
+ * into a single pass over the source.  Building a query only chains the steps; nothing runs until a terminal operation
+ * such as {@link #toList()}, {@link #count()} or {@link #groupBy(Function)}, which pushes each source element through
+ * all of the steps in turn and straight into its one result.  No intermediate collections are made, so a query
+ * allocates in proportion to its output plus a small constant per step, however long the chain.
+ * {@link #anySatisfy(Predicate)} and {@link #detect(Predicate)} stop the pass at the first match.
+ * <p/>
+ * Queries are reusable: each terminal operation makes a fresh pass, seeing the source as it is then.  Start one with
+ * {@link #from(Iterable)} or {@link Company#queryCustomers()}.
+ */
+public abstract class Query<T>
+{
+    /**
+     * Receives the elements of a pass; returns false to stop the pass.
+     */
+    interface Sink<T>
+    {
+        boolean accept(T each);
+    }
+
+    Query()
+    {
+    }
+
+    /**
+     * Pushes each element into the sink, and returns false if the sink stopped the pass.
+     */
+    abstract boolean run(Sink<? super T> sink);
+
+    public static <T> Query<T> from(final Iterable<T> source)
+    {
+        return new Query<T>()
+        {
+            @Override
+            boolean run(Sink<? super T> sink)
+            {
+                return push(source, sink);
+            }
+        };
+    }
+
+    /**
+     * Pushes each element of the iterable into the sink, indexing into random access lists so that no iterator is
+     * made for them.
+     */
+    static <T> boolean push(Iterable<T> iterable, Sink<? super T> sink)
+    {
+        if (iterable instanceof RandomAccess && iterable instanceof List)
+        {
+            List<T> list = (List<T>) iterable;
+            for (int i = 0; i < list.size(); i++)
+            {
+                if (!sink.accept(list.get(i)))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (T each : iterable)
+        {
+            if (!sink.accept(each))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Query<T> select(final Predicate<? super T> predicate)
+    {
+        final Query<T> source = this;
+        return new Query<T>()
+        {
+            @Override
+            boolean run(final Sink<? super T> sink)
+            {
+                return source.run(new Sink<T>()
+                {
+                    @Override
+                    public boolean accept(T each)
+                    {
+                        return !predicate.accept(each) || sink.accept(each);
+                    }
+                });
+            }
+        };
+    }
+
+    public Query<T> reject(final Predicate<? super T> predicate)
+    {
+        final Query<T> source = this;
+        return new Query<T>()
+        {
+            @Override
+            boolean run(final Sink<? super T> sink)
+            {
+                return source.run(new Sink<T>()
+                {
+                    @Override
+                    public boolean accept(T each)
+                    {
+                        return predicate.accept(each) || sink.accept(each);
+                    }
+                });
+            }
+        };
+    }
+
+    public <V> Query<V> collect(final Function<? super T, ? extends V> function)
+    {
+        final Query<T> source = this;
+        return new Query<V>()
+        {
+            @Override
+            boolean run(final Sink<? super V> sink)
+            {
+                return source.run(new Sink<T>()
+                {
+                    @Override
+                    public boolean accept(T each)
+                    {
+                        return sink.accept(function.valueOf(each));
+                    }
+                });
+            }
+        };
+    }
+
+    public <V> Query<V> collectIf(final Predicate<? super T> predicate, final Function<? super T, ? extends V> function)
+    {
+        final Query<T> source = this;
+        return new Query<V>()
+        {
+            @Override
+            boolean run(final Sink<? super V> sink)
+            {
+                return source.run(new Sink<T>()
+                {
+                    @Override
+                    public boolean accept(T each)
+                    {
+                        return !predicate.accept(each) || sink.accept(function.valueOf(each));
+                    }
+                });
+            }
+        };
+    }
+
+    public <V> Query<V> flatCollect(final Function<? super T, ? extends Iterable<V>> function)
+    {
+        final Query<T> source = this;
+        return new Query<V>()
+        {
+            @Override
+            boolean run(final Sink<? super V> sink)
+            {
+                return source.run(new Sink<T>()
+                {
+                    @Override
+                    public boolean accept(T each)
+                    {
+                        return push(function.valueOf(each), sink);
+                    }
+                });
+            }
+        };
+    }
+
+    public void forEach(final Procedure<? super T> procedure)
+    {
+        this.run(new Sink<T>()
+        {
+            @Override
+            public boolean accept(T each)
+            {
+                procedure.value(each);
+                return true;
+            }
+        });
+    }
+
+    public MutableList<T> toList()
+    {
+        final MutableList<T> result = FastList.newList();
+        this.run(new Sink<T>()
+        {
+            @Override
+            public boolean accept(T each)
+            {
+                result.add(each);
+                return true;
+            }
+        });
+        return result;
+    }
+
+    public MutableSet<T> toSet()
+    {
+        final MutableSet<T> result = UnifiedSet.newSet();
+        this.run(new Sink<T>()
+        {
+            @Override
+            public boolean accept(T each)
+            {
+                result.add(each);
+                return true;
+            }
+        });
+        return result;
+    }
+
+    public <K> MutableListMultimap<K, T> groupBy(final Function<? super T, ? extends K> function)
+    {
+        final MutableListMultimap<K, T> result = FastListMultimap.newMultimap();
+        this.run(new Sink<T>()
+        {
+            @Override
+            public boolean accept(T each)
+            {
+                result.put(function.valueOf(each), each);
+                return true;
+            }
+        });
+        return result;
+    }
+
+    public int count()
+    {
+        Counter<T> counter = new Counter<T>();
+        this.run(counter);
+        return counter.count;
+    }
+
+    public double sumOfDouble(DoubleFunction<? super T> function)
+    {
+        DoubleSummer<T> summer = new DoubleSummer<T>(function);
+        this.run(summer);
+        return summer.sum;
+    }
+
+    /**
+     * Returns the first element that satisfies the predicate, or null, stopping the pass as soon as it is found.
+     */
+    public T detect(Predicate<? super T> predicate)
+    {
+        Detector<T> detector = new Detector<T>(predicate);
+        this.run(detector);
+        return detector.found;
+    }
+
+    public boolean anySatisfy(Predicate<? super T> predicate)
+    {
+        Detector<T> detector = new Detector<T>(predicate);
+        return !this.run(detector);
+    }
+
+    public boolean allSatisfy(Predicate<? super T> predicate)
+    {
+        return !this.anySatisfy(Predicates.not(predicate));
+    }
+
+    public boolean noneSatisfy(Predicate<? super T> predicate)
+    {
+        return !this.anySatisfy(predicate);
+    }
+
+    public String makeString()
+    {
+        return this.makeString(", ");
+    }
+
+    public String makeString(String separator)
+    {
+        return this.makeString("", separator, "");
+    }
+
+    public String makeString(String start, final String separator, String end)
+    {
+        final StringBuilder builder = new StringBuilder(start);
+        this.run(new Sink<T>()
+        {
+            private boolean first = true;
+
+            @Override
+            public boolean accept(T each)
+            {
+                if (!this.first)
+                {
+                    builder.append(separator);
+                }
+                builder.append(each);
+                this.first = false;
+                return true;
+            }
+        });
+        return builder.append(end).toString();
+    }
+
+    private static final class Counter<T> implements Sink<T>
+    {
+        private int count;
+
+        @Override
+        public boolean accept(T each)
+        {
+            this.count++;
+            return true;
+        }
+    }
+
+    private static final class DoubleSummer<T> implements Sink<T>
+    {
+        private final DoubleFunction<? super T> function;
+        private double sum;
+
+        private DoubleSummer(DoubleFunction<? super T> function)
+        {
+            this.function = function;
+        }
+
+        @Override
+        public boolean accept(T each)
+        {
+            this.sum += this.function.doubleValueOf(each);
+            return true;
+        }
+    }
+
+    private static final class Detector<T> implements Sink<T>
+    {
+        private final Predicate<? super T> predicate;
+        private T found;
+
+        private Detector(Predicate<? super T> predicate)
+        {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean accept(T each)
+        {
+            if (this.predicate.accept(each))
+            {
+                this.found = each;
+                return false;
+            }
+            return true;
+        }
+    }
+}
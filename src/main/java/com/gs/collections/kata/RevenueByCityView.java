@@ -0,0 +1,81 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.api.block.procedure.primitive.ObjectDoubleProcedure;
+import com.gs.collections.api.map.MutableMap;
+import com.gs.collections.impl.map.mutable.UnifiedMap;
+import com.gs.collections.impl.map.mutable.primitive.ObjectDoubleHashMap;
+
+/**
+ * The total order value of the customers in each city, the same as aggregating the customers' total order values by
+ * {@link Customer#TO_CITY}, maintained in O(1) per change.
+ */
+public final class RevenueByCityView extends MaterializedView
+{
+    private final ObjectDoubleHashMap<String> revenueByCity = ObjectDoubleHashMap.newMap();
+
+    @Override
+    public synchronized void customerAdded(Customer customer)
+    {
+        this.add(customer.getCity(), customer.getTotalOrderValue());
+    }
+
+    @Override
+    public synchronized void orderAdded(Order order)
+    {
+        this.add(order.getCustomer().getCity(), order.getValue());
+    }
+
+    @Override
+    public synchronized void lineItemAdded(Order order, String itemName, int quantity, double unitPrice)
+    {
+        this.add(order.getCustomer().getCity(), quantity * unitPrice);
+    }
+
+    private void add(String key, double value)
+    {
+        this.revenueByCity.put(key, this.revenueByCity.get(key) + value);
+    }
+
+    public synchronized double getRevenue(String city)
+    {
+        return this.revenueByCity.get(city);
+    }
+
+    /**
+     * Returns a copy of the revenue of every city.
+     */
+    public synchronized MutableMap<String, Double> toMap()
+    {
+        return toMap(this.revenueByCity);
+    }
+
+    static MutableMap<String, Double> toMap(ObjectDoubleHashMap<String> values)
+    {
+        final MutableMap<String, Double> result = UnifiedMap.newMap(values.size());
+        values.forEachKeyValue(new ObjectDoubleProcedure<String>()
+        {
+            @Override
+            public void value(String key, double value)
+            {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+}
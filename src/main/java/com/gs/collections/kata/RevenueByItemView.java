@@ -0,0 +1,77 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.api.block.procedure.primitive.ObjectDoubleProcedure;
+import com.gs.collections.api.map.MutableMap;
+import com.gs.collections.impl.map.mutable.primitive.ObjectDoubleHashMap;
+
+/**
+ * The total value of every line item for each item name, the same as aggregating all line item values by
+ * {@link LineItem#TO_NAME}, maintained in O(1) per line item added.
+ */
+public final class RevenueByItemView extends MaterializedView
+{
+    private final ObjectDoubleHashMap<String> revenueByItem = ObjectDoubleHashMap.newMap();
+    private final ObjectDoubleProcedure<String> addRevenue = new ObjectDoubleProcedure<String>()
+    {
+        @Override
+        public void value(String itemName, double value)
+        {
+            RevenueByItemView.this.add(itemName, value);
+        }
+    };
+
+    @Override
+    public synchronized void customerAdded(Customer customer)
+    {
+        for (int i = 0; i < customer.getOrders().size(); i++)
+        {
+            customer.getOrders().get(i).forEachLineItemValue(this.addRevenue);
+        }
+    }
+
+    @Override
+    public synchronized void orderAdded(Order order)
+    {
+        order.forEachLineItemValue(this.addRevenue);
+    }
+
+    @Override
+    public synchronized void lineItemAdded(Order order, String itemName, int quantity, double unitPrice)
+    {
+        this.add(itemName, quantity * unitPrice);
+    }
+
+    private void add(String key, double value)
+    {
+        this.revenueByItem.put(key, this.revenueByItem.get(key) + value);
+    }
+
+    public synchronized double getRevenue(String itemName)
+    {
+        return this.revenueByItem.get(itemName);
+    }
+
+    /**
+     * Returns a copy of the revenue of every item.
+     */
+    public synchronized MutableMap<String, Double> toMap()
+    {
+        return RevenueByCityView.toMap(this.revenueByItem);
+    }
+}
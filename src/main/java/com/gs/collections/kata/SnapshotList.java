@@ -0,0 +1,91 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.Arrays;
+
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.impl.list.mutable.FastList;
+
+/**
+ * An append-only list that readers can iterate while it is being written.  Each append publishes, through a volatile
+ * field, an unmodifiable {@link MutableList} over the elements written so far.  Slots below a published size are never
+ * written again and a full array is copied rather than resized in place, so a snapshot stays consistent however many
+ * elements are appended after it was taken.  Reading a snapshot is wait-free and allocates nothing.
+ * <p/>
+ * Appends must be serialized by the caller.
+ */
+final class SnapshotList<T>
+{
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private T[] items;
+    private int size;
+    private volatile MutableList<T> snapshot;
+
+    SnapshotList()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    SnapshotList(int initialCapacity)
+    {
+        this.items = (T[]) new Object[Math.max(initialCapacity, 1)];
+        this.snapshot = new Snapshot<T>(0, this.items).asUnmodifiable();
+    }
+
+    void add(T item)
+    {
+        if (this.size == this.items.length)
+        {
+            this.items = Arrays.copyOf(this.items, this.size + (this.size >> 1) + 1);
+        }
+        this.items[this.size++] = item;
+        this.snapshot = new Snapshot<T>(this.size, this.items).asUnmodifiable();
+    }
+
+    /**
+     * Appends the items, growing the array no more than once and publishing a single snapshot at the end.
+     */
+    void addAll(T[] newItems)
+    {
+        int newSize = this.size + newItems.length;
+        if (newSize > this.items.length)
+        {
+            this.items = Arrays.copyOf(this.items, Math.max(newSize, this.size + (this.size >> 1) + 1));
+        }
+        System.arraycopy(newItems, 0, this.items, this.size, newItems.length);
+        this.size = newSize;
+        this.snapshot = new Snapshot<T>(this.size, this.items).asUnmodifiable();
+    }
+
+    MutableList<T> snapshot()
+    {
+        return this.snapshot;
+    }
+
+    private static final class Snapshot<T> extends FastList<T>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private Snapshot(int size, T[] items)
+        {
+            super(size, items);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that threads add to without contending.  Each thread adds to one of several cells chosen by its id, and
+ * the cells are spaced a cache line apart so that threads on different cells do not share a line.  Reading the total
+ * sums the cells; it is exact once the adds have finished and a close estimate while they are running.
+ */
+final class StripedCounter
+{
+    static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    // longs per cache line, so each cell sits on its own line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    void add(long delta)
+    {
+        this.cells.getAndAdd(stripe() * PADDING, delta);
+    }
+
+    long sum()
+    {
+        long sum = 0L;
+        for (int i = 0; i < STRIPES; i++)
+        {
+            sum += this.cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    void reset()
+    {
+        for (int i = 0; i < STRIPES; i++)
+        {
+            this.cells.set(i * PADDING, 0L);
+        }
+    }
+
+    static int stripe()
+    {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 16)) & (STRIPES - 1);
+    }
+}
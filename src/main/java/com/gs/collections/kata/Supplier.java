@@ -17,6 +17,7 @@
 package com.gs.collections.kata;
 
 import com.gs.collections.api.block.function.Function;
+import com.gs.collections.api.block.predicate.Predicate2;
 
 /**
  * Suppliers have a name and an array of itemNames. Suppliers don't like lists - they prefer arrays....
@@ -43,6 +44,27 @@ public class Supplier
                 }
             };
 
+    public static final Predicate2<Supplier, String> NAMED = new Predicate2<Supplier, String>()
+    {
+        @Override
+        public boolean accept(Supplier supplier, String name)
+        {
+            return supplier.name.equals(name);
+        }
+    };
+
+    /**
+     * Accepts suppliers that supply the named item.
+     */
+    public static final Predicate2<Supplier, String> CARRIES = new Predicate2<Supplier, String>()
+    {
+        @Override
+        public boolean accept(Supplier supplier, String itemName)
+        {
+            return supplier.carries(itemName);
+        }
+    };
+
     private final String name;
     private final String[] itemNames;
 
@@ -62,6 +84,18 @@ public class Supplier
         return this.itemNames;
     }
 
+    public boolean carries(String itemName)
+    {
+        for (String each : this.itemNames)
+        {
+            if (each.equals(itemName))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public String toString() {
         return this.name;
     }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.Arrays;
+
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.api.multimap.list.MutableListMultimap;
+import com.gs.collections.impl.multimap.list.FastListMultimap;
+
+/**
+ * A growable registry of {@link Supplier}s.  Appends are amortized O(1): the backing array grows by half its size
+ * when it fills up.  Readers are handed an exactly sized snapshot array that is never written to again, so a reader can
+ * iterate it while suppliers are being added on another thread.  A new snapshot is only copied on the first read after
+ * the registry changes.
+ * <p/>
+ * The registry also keeps an index from item name to the suppliers of that item, in the order they were added.
+ */
+final class SupplierRegistry
+{
+    private static final Supplier[] EMPTY = new Supplier[0];
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private Supplier[] buffer = new Supplier[DEFAULT_CAPACITY];
+    private int size;
+    private volatile Supplier[] snapshot = EMPTY;
+    private final MutableListMultimap<String, Supplier> suppliersByItem = FastListMultimap.newMultimap();
+
+    synchronized void add(Supplier supplier)
+    {
+        this.ensureCapacity(this.size + 1);
+        this.buffer[this.size++] = supplier;
+        this.indexItems(supplier);
+        this.snapshot = null;
+    }
+
+    synchronized void addAll(Supplier... suppliers)
+    {
+        this.ensureCapacity(this.size + suppliers.length);
+        System.arraycopy(suppliers, 0, this.buffer, this.size, suppliers.length);
+        this.size += suppliers.length;
+        for (Supplier supplier : suppliers)
+        {
+            this.indexItems(supplier);
+        }
+        this.snapshot = null;
+    }
+
+    /**
+     * Returns the current snapshot.  It is shared between readers and must not be modified.
+     */
+    Supplier[] toArray()
+    {
+        Supplier[] result = this.snapshot;
+        if (result == null)
+        {
+            synchronized (this)
+            {
+                result = this.snapshot;
+                if (result == null)
+                {
+                    result = Arrays.copyOf(this.buffer, this.size);
+                    this.snapshot = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the suppliers of the item, in the order they were added.  The lookup is a single hash probe; only the
+     * suppliers of that one item are copied into the result.
+     */
+    synchronized ImmutableList<Supplier> getSuppliersOf(String itemName)
+    {
+        return this.suppliersByItem.get(itemName).toImmutable();
+    }
+
+    synchronized int size()
+    {
+        return this.size;
+    }
+
+    private void indexItems(Supplier supplier)
+    {
+        for (String itemName : supplier.getItemNames())
+        {
+            this.suppliersByItem.put(itemName, supplier);
+        }
+    }
+
+    private void ensureCapacity(int minCapacity)
+    {
+        int capacity = this.buffer.length;
+        if (minCapacity > capacity)
+        {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(minCapacity, capacity + (capacity >> 1) + 1));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Dictionary encodes the city and item names of the domain, whose vocabularies are small.  Each distinct string is interned once and given
+ * a small int symbol, so every customer from "London" shares one {@link String}.  Strings that are equal ignoring case
+ * also share a folded symbol, the symbol of the first spelling interned, so case-insensitive equality is worked out
+ * once at intern time and afterwards is an int comparison.
+ * <p/>
+ * Lookups never lock.  Interning a new string takes a lock; symbols are never released.
+ */
+final class SymbolTable
+{
+    static final SymbolTable GLOBAL = new SymbolTable();
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final ConcurrentMap<String, Integer> symbols = new ConcurrentHashMap<String, Integer>();
+    private final CaseInsensitiveIndex<Integer> foldedSymbols = new CaseInsensitiveIndex<Integer>();
+    private volatile String[] strings = new String[DEFAULT_CAPACITY];
+    private volatile int[] folded = new int[DEFAULT_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the symbol for the string, adding it to the table if it is new.
+     */
+    int intern(String string)
+    {
+        Integer symbol = this.symbols.get(string);
+        if (symbol != null)
+        {
+            return symbol;
+        }
+        synchronized (this)
+        {
+            symbol = this.symbols.get(string);
+            if (symbol != null)
+            {
+                return symbol;
+            }
+            int newSymbol = this.size;
+            if (newSymbol == this.strings.length)
+            {
+                int newCapacity = newSymbol + (newSymbol >> 1);
+                this.strings = Arrays.copyOf(this.strings, newCapacity);
+                this.folded = Arrays.copyOf(this.folded, newCapacity);
+            }
+            Integer foldedSymbol = this.foldedSymbols.getFirst(string);
+            this.strings[newSymbol] = string;
+            this.folded[newSymbol] = foldedSymbol == null ? newSymbol : foldedSymbol;
+            this.size++;
+            if (foldedSymbol == null)
+            {
+                this.foldedSymbols.put(string, newSymbol);
+            }
+            // publishing the symbol last makes the arrays above visible to any thread that finds it
+            this.symbols.put(string, newSymbol);
+            return newSymbol;
+        }
+    }
+
+    /**
+     * Returns the single shared instance of the string.
+     */
+    String canonical(String string)
+    {
+        return this.valueOf(this.intern(string));
+    }
+
+    String valueOf(int symbol)
+    {
+        return this.strings[symbol];
+    }
+
+    /**
+     * Returns the symbol shared by every string equal to this symbol's string ignoring case.
+     */
+    int fold(int symbol)
+    {
+        return this.folded[symbol];
+    }
+
+    /**
+     * Returns the folded symbol of the string without interning it, or -1 if no string equal to it ignoring case has
+     * been interned.  Never allocates.
+     */
+    int lookupFolded(String string)
+    {
+        Integer symbol = this.foldedSymbols.getFirst(string);
+        return symbol == null ? -1 : symbol;
+    }
+}
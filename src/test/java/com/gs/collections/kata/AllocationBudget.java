@@ -0,0 +1,109 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assert;
+import org.junit.Assume;
+
+/**
+ * Assertions on how many bytes of heap a piece of code allocates per call, measured with the per thread allocation
+ * counter of {@link com.sun.management.ThreadMXBean}.  A call over its budget fails the test the way a
+ * {@code Verify} assertion does; on a JVM without the counter the test is skipped instead.
+ * <p/>
+ * The code is run {@link #WARM_UP_CALLS} times first, so class loading and first call initialization are not
+ * counted, then {@link #MEASURED_CALLS} times between two readings of the counter.  The cost of reading the counter
+ * itself is measured and taken off.  Allocations that the JIT compiler removes by escape analysis are not counted, so
+ * compiled code can come in under a budget that the same code run in the interpreter would exceed.
+ */
+public final class AllocationBudget
+{
+    public static final int WARM_UP_CALLS = 10000;
+    public static final int MEASURED_CALLS = 10000;
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private AllocationBudget()
+    {
+        throw new AssertionError("Suppress default constructor for noninstantiability");
+    }
+
+    private static com.sun.management.ThreadMXBean threads()
+    {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+            if (sunThreads.isThreadAllocatedMemorySupported())
+            {
+                sunThreads.setThreadAllocatedMemoryEnabled(true);
+                return sunThreads;
+            }
+        }
+        return null;
+    }
+
+    public static boolean isSupported()
+    {
+        return THREADS != null;
+    }
+
+    /**
+     * Returns the mean number of bytes the code allocates per call, after warming it up.
+     */
+    public static double bytesPerCall(Runnable code)
+    {
+        Assume.assumeTrue("thread allocation counters are not supported", isSupported());
+        for (int i = 0; i < WARM_UP_CALLS; i++)
+        {
+            code.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long first = THREADS.getThreadAllocatedBytes(threadId);
+        long overhead = THREADS.getThreadAllocatedBytes(threadId) - first;
+        long before = THREADS.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++)
+        {
+            code.run();
+        }
+        long after = THREADS.getThreadAllocatedBytes(threadId);
+        return Math.max(0L, after - before - overhead) / (double) MEASURED_CALLS;
+    }
+
+    /**
+     * Asserts that the code allocates nothing per call.
+     */
+    public static void assertAllocationFree(String operation, Runnable code)
+    {
+        assertAllocatesAtMost(operation, 0L, code);
+    }
+
+    /**
+     * Asserts that the code allocates no more than {@code budgetBytes} per call on average.  Less than a byte per call
+     * over the budget is let through, so a one-off allocation, such as a cache filled on first use, does not fail it.
+     */
+    public static void assertAllocatesAtMost(String operation, long budgetBytes, Runnable code)
+    {
+        double bytesPerCall = bytesPerCall(code);
+        if (bytesPerCall >= budgetBytes + 1.0)
+        {
+            Assert.fail(operation + " allocated " + bytesPerCall + " bytes per call, over its budget of "
+                    + budgetBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AllocationBudgetTest extends CompanyDomainForKata
+{
+    private Object escaped;
+
+    @Test
+    public void orderValueIsAllocationFree()
+    {
+        final Order order = this.company.getCustomerNamed("Fred").getOrders().getFirst();
+        AllocationBudget.assertAllocationFree("Order.getValue", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                order.getValue();
+            }
+        });
+    }
+
+    @Test
+    public void cachedTotalOrderValueIsAllocationFree()
+    {
+        final Customer bill = this.company.getCustomerNamed("Bill");
+        AllocationBudget.assertAllocationFree("Customer.getTotalOrderValue", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                bill.getTotalOrderValue();
+            }
+        });
+    }
+
+    @Test
+    public void extendedTotalOrderValueIsAllocationFree()
+    {
+        final Customer customer = new Customer("Jo", "Leeds");
+        // room for every line item the runs add, so the columns never grow
+        final Order order = new Order(
+                OrderNumberAllocator.GLOBAL,
+                AllocationBudget.WARM_UP_CALLS + AllocationBudget.MEASURED_CALLS);
+        customer.addOrder(order);
+        customer.addOrder(new Order());
+        AllocationBudget.assertAllocationFree("Order.addLineItem", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                order.addLineItem("cup", 3, 1.5);
+                customer.getTotalOrderValue();
+            }
+        });
+    }
+
+    @Test
+    public void revaluedTotalOrderValueIsAllocationFree()
+    {
+        final Customer customer = new Customer("Jo", "Leeds");
+        Order order = new Order();
+        order.addLineItem("cup", 3, 1.5);
+        customer.addOrder(order);
+        final Order added = new Order();
+        added.addLineItem("saucer", 3, 1.0);
+        AllocationBudget.assertAllocationFree("Customer.getTotalOrderValue", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                // orders added and removed straight through getOrders() are only noticed by totalling them again
+                customer.getOrders().add(added);
+                customer.getTotalOrderValue();
+                customer.getOrders().remove(customer.getOrders().size() - 1);
+                customer.getTotalOrderValue();
+            }
+        });
+    }
+
+    @Test
+    public void lookupsAreAllocationFree()
+    {
+        final Order order = this.company.getCustomerNamed("Fred").getOrders().getFirst();
+        AllocationBudget.assertAllocationFree("Company lookups", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AllocationBudgetTest.this.company.getCustomerNamed("mary");
+                AllocationBudgetTest.this.company.countCustomersIn("London");
+                order.containsItem("cup");
+            }
+        });
+    }
+
+    @Test
+    public void parameterizedQueriesAllocateOnlyTheBoxedParameter()
+    {
+        AllocationBudget.assertAllocationFree("parameterized queries", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AllocationBudgetTest.this.company.countSuppliersOf("sofa");
+                AllocationBudgetTest.this.company.getSupplierNamed("SFD");
+            }
+        });
+        // the item's symbol boxed as an Integer, unless it is small enough to be cached
+        AllocationBudget.assertAllocatesAtMost("Company.countOrdersContaining", 24L, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AllocationBudgetTest.this.company.countOrdersContaining("cup");
+            }
+        });
+        // a boxed Double, with or without compressed oops
+        AllocationBudget.assertAllocatesAtMost("Company.countOrdersAbove", 24L, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AllocationBudgetTest.this.company.countOrdersAbove(100.0);
+            }
+        });
+    }
+
+    @Test
+    public void getOrdersAllocatesOnlyItsResult()
+    {
+        AllocationBudget.assertAllocatesAtMost("Company.getOrders", 160L, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AllocationBudgetTest.this.company.getOrders();
+            }
+        });
+    }
+
+    @Test
+    public void measuresAllocations()
+    {
+        double bytesPerCall = AllocationBudget.bytesPerCall(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AllocationBudgetTest.this.escaped = new long[16];
+            }
+        });
+        Assert.assertTrue(String.valueOf(bytesPerCall), bytesPerCall >= 128.0 && bytesPerCall <= 160.0);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void failsOverBudget()
+    {
+        AllocationBudget.assertAllocatesAtMost("new long[16]", 64L, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AllocationBudgetTest.this.escaped = new long[16];
+            }
+        });
+    }
+}
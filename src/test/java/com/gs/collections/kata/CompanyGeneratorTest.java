@@ -0,0 +1,99 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.api.bag.Bag;
+import com.gs.collections.impl.utility.ArrayIterate;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompanyGeneratorTest
+{
+    private static CompanyGenerator generator(long seed)
+    {
+        return new CompanyGenerator(seed).withCustomersPerScale(500);
+    }
+
+    @Test
+    public void generatesScaleTimesCustomersPerScale()
+    {
+        Company company = generator(1L).generate("Bloggs", 3);
+        Assert.assertEquals(1500, company.getCustomers().size());
+        Assert.assertEquals(50, company.getSuppliers().length);
+        Assert.assertNotNull(company.getCustomerNamed("Customer 1499"));
+        Assert.assertEquals(1500, company.getCustomerCountsByCity().size());
+    }
+
+    @Test
+    public void sameSeedGeneratesTheSameCompany()
+    {
+        Company first = generator(42L).generate("Bloggs", 1);
+        Company second = generator(42L).generate("Bloggs", 1);
+        Assert.assertEquals(first.getCustomers().collect(Customer.TO_TOTAL_ORDER_VALUE),
+                second.getCustomers().collect(Customer.TO_TOTAL_ORDER_VALUE));
+        Assert.assertEquals(first.getCustomers().collect(Customer.TO_CITY), second.getCustomers().collect(Customer.TO_CITY));
+        Assert.assertEquals(
+                ArrayIterate.collect(first.getSuppliers(), Supplier.TO_NUMBER_OF_ITEMS),
+                ArrayIterate.collect(second.getSuppliers(), Supplier.TO_NUMBER_OF_ITEMS));
+
+        Company other = generator(43L).generate("Bloggs", 1);
+        Assert.assertNotEquals(first.getCustomers().collect(Customer.TO_TOTAL_ORDER_VALUE),
+                other.getCustomers().collect(Customer.TO_TOTAL_ORDER_VALUE));
+    }
+
+    @Test
+    public void skewFavoursTheFirstCities()
+    {
+        Bag<String> skewed = generator(7L).withCities(10, 2.0).generate("Bloggs", 2).getCustomerCountsByCity();
+        Assert.assertTrue(skewed.occurrencesOf("London") > 500);
+        Assert.assertTrue(skewed.occurrencesOf("London") > 10 * skewed.occurrencesOf("Cardiff"));
+
+        Bag<String> uniform = generator(7L).withCities(10, 0.0).generate("Bloggs", 2).getCustomerCountsByCity();
+        Assert.assertEquals(10, uniform.sizeDistinct());
+        Assert.assertTrue(uniform.occurrencesOf("London") < 2 * uniform.occurrencesOf("Cardiff"));
+    }
+
+    @Test
+    public void ordersAndLineItemsStayWithinTheirLimits()
+    {
+        Company company = generator(3L)
+                .withMaxOrdersPerCustomer(2)
+                .withMaxLineItemsPerOrder(3)
+                .withMaxQuantity(1)
+                .withItems(5, 0.5)
+                .generate("Bloggs", 1);
+        for (Customer customer : company.getCustomers())
+        {
+            Assert.assertTrue(customer.getOrders().size() >= 1 && customer.getOrders().size() <= 2);
+            for (Order order : customer.getOrders())
+            {
+                Assert.assertTrue(order.getLineItems().size() >= 1 && order.getLineItems().size() <= 3);
+                Assert.assertSame(customer, order.getCustomer());
+            }
+        }
+        Assert.assertTrue(company.lineItemsView().collect(LineItem.TO_NAME).toSet().size() <= 5);
+    }
+
+    @Test
+    public void fillsAConcurrentCompany()
+    {
+        Company company = generator(5L).generate(Company.newConcurrentCompany("Bloggs"), 1);
+        Assert.assertEquals(500, company.getCustomers().size());
+        Assert.assertEquals(1, company.getCustomersNamed("customer 0").size());
+        Assert.assertEquals(500, company.getCustomerCountsByCity().size());
+    }
+}
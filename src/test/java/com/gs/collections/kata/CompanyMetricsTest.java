@@ -0,0 +1,128 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompanyMetricsTest extends CompanyDomainForKata
+{
+    @Before
+    public void enableMetrics()
+    {
+        CompanyMetrics.INSTANCE.reset();
+        CompanyMetrics.INSTANCE.setEnabled(true);
+    }
+
+    @After
+    public void disableMetrics()
+    {
+        CompanyMetrics.INSTANCE.setEnabled(false);
+        CompanyMetrics.INSTANCE.reset();
+    }
+
+    @Test
+    public void recordsCallsAndResultSizes()
+    {
+        this.company.getOrders();
+        this.company.getOrders();
+        this.company.getCustomerNamed("mary");
+        this.company.getCustomerNamed("Pete");
+        this.company.getCustomerNames();
+        this.company.addSupplier(new Supplier("Bits", new String[]{"bit", "bob"}));
+        this.company.getCustomerNamed("Bill").getTotalOrderValue();
+
+        Assert.assertEquals(2L, CompanyMetrics.GET_ORDERS.getCallCount());
+        Assert.assertEquals(5.0, CompanyMetrics.GET_ORDERS.getMeanResultSize(), 0.0);
+        Assert.assertEquals(3L, CompanyMetrics.GET_CUSTOMER_NAMED.getCallCount());
+        Assert.assertEquals(2L, CompanyMetrics.GET_CUSTOMER_NAMED.getTotalResultSize());
+        Assert.assertEquals(3L, CompanyMetrics.GET_CUSTOMER_NAMES.getTotalResultSize());
+        Assert.assertEquals(2L, CompanyMetrics.ADD_SUPPLIER.getTotalResultSize());
+        Assert.assertEquals(3L, CompanyMetrics.GET_TOTAL_ORDER_VALUE.getTotalResultSize());
+    }
+
+    @Test
+    public void histogramCountsEveryCall()
+    {
+        Order order = this.company.getCustomerNamed("Fred").getOrders().getFirst();
+        for (int i = 0; i < 1000; i++)
+        {
+            order.getValue();
+        }
+        OperationMetrics metrics = CompanyMetrics.GET_VALUE;
+        Assert.assertEquals(1000L, metrics.getCallCount());
+        Assert.assertEquals(9.0, metrics.getMeanResultSize(), 0.0);
+        long total = 0L;
+        for (long each : metrics.getLatencyHistogram())
+        {
+            total += each;
+        }
+        Assert.assertEquals(1000L, total);
+        Assert.assertTrue(metrics.getMedianLatencyNanos() <= metrics.getP99LatencyNanos());
+        Assert.assertTrue(metrics.getP99LatencyNanos() > 0L);
+    }
+
+    @Test
+    public void recordsNothingWhenDisabled()
+    {
+        CompanyMetrics.INSTANCE.setEnabled(false);
+        this.company.getOrders();
+        this.company.getCustomerNamed("Fred");
+        Assert.assertEquals(0L, CompanyMetrics.GET_ORDERS.getCallCount());
+        Assert.assertEquals(0L, CompanyMetrics.GET_CUSTOMER_NAMED.getCallCount());
+        Assert.assertEquals(0L, CompanyMetrics.GET_ORDERS.getMedianLatencyNanos());
+    }
+
+    @Test
+    public void histogramBuckets()
+    {
+        Assert.assertEquals(0, OperationMetrics.bucket(0L));
+        Assert.assertEquals(1, OperationMetrics.bucket(1L));
+        Assert.assertEquals(10, OperationMetrics.bucket(1000L));
+        Assert.assertEquals(63, OperationMetrics.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void exposesMBeans() throws Exception
+    {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        CompanyMetrics.INSTANCE.registerMBeans(server);
+        try
+        {
+            this.company.getOrders();
+            Assert.assertEquals(
+                    1L,
+                    server.getAttribute(CompanyMetrics.operationName(CompanyMetrics.GET_ORDERS), "CallCount"));
+            server.setAttribute(
+                    CompanyMetrics.controlName(),
+                    new Attribute("Enabled", Boolean.FALSE));
+            Assert.assertFalse(CompanyMetrics.INSTANCE.isEnabled());
+            server.invoke(CompanyMetrics.controlName(), "reset", null, null);
+            Assert.assertEquals(0L, CompanyMetrics.GET_ORDERS.getCallCount());
+        }
+        finally
+        {
+            CompanyMetrics.INSTANCE.unregisterMBeans(server);
+        }
+    }
+}
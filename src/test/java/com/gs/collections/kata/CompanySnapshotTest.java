@@ -0,0 +1,173 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import com.gs.collections.impl.utility.ArrayIterate;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CompanySnapshotTest extends CompanyDomainForKata
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private CompanySnapshot writeAndOpen(Company aCompany) throws IOException
+    {
+        File file = this.folder.newFile();
+        CompanySnapshot.write(aCompany, file);
+        return CompanySnapshot.open(file);
+    }
+
+    @Test
+    public void readsCustomersWithoutDecodingOrders() throws IOException
+    {
+        CompanySnapshot snapshot = this.writeAndOpen(this.company);
+        Assert.assertEquals("Bloggs Shed Supplies", snapshot.getCompanyName());
+        Assert.assertEquals(3, snapshot.getCustomerCount());
+        Assert.assertEquals(5, snapshot.getOrderCount());
+        Assert.assertEquals(68, snapshot.getLineItemCount());
+        Assert.assertEquals("Mary", snapshot.getCustomerName(1));
+        Assert.assertEquals("Liphook", snapshot.getCustomerCity(1));
+        Assert.assertEquals(857.0, snapshot.getTotalOrderValue(1), 0.0);
+    }
+
+    @Test
+    public void decodesCustomersWithTheirOrders() throws IOException
+    {
+        this.company.getCustomerNamed("Bill").getOrders().get(1).deliver();
+        CompanySnapshot snapshot = this.writeAndOpen(this.company);
+
+        Customer bill = snapshot.getCustomer(2);
+        Customer original = this.company.getCustomerNamed("Bill");
+        Assert.assertEquals("Bill", bill.getName());
+        Assert.assertEquals(original.getTotalOrderValue(), bill.getTotalOrderValue(), 0.0);
+        Assert.assertEquals(original.getOrders().collect(Order.TO_VALUE), bill.getOrders().collect(Order.TO_VALUE));
+        for (int i = 0; i < 3; i++)
+        {
+            Assert.assertEquals(original.getOrders().get(i).getOrderNumber(), bill.getOrders().get(i).getOrderNumber());
+            Assert.assertEquals(i == 1, bill.getOrders().get(i).isDelivered());
+        }
+        Assert.assertEquals(44, bill.getOrders().getFirst().getLineItems().size());
+        Assert.assertEquals(
+                original.getOrders().getFirst().getLineItems().toString(),
+                bill.getOrders().getFirst().getLineItems().toString());
+        Assert.assertSame(bill, bill.getOrders().getFirst().getCustomer());
+    }
+
+    @Test
+    public void customersViewDecodesLazily() throws IOException
+    {
+        CompanySnapshot snapshot = this.writeAndOpen(this.company);
+        Assert.assertEquals(
+                this.company.getCustomers().collect(Customer.TO_NAME),
+                snapshot.customersView().collect(Customer.TO_NAME).toList());
+        Assert.assertEquals(2, snapshot.customersView().count(Customer.FROM_LONDON));
+    }
+
+    @Test
+    public void toCompanyRestoresCustomersAndSuppliers() throws IOException
+    {
+        Company restored = this.writeAndOpen(this.company).toCompany();
+        Assert.assertEquals(this.company.getName(), restored.getName());
+        Assert.assertEquals(
+                this.company.getCustomers().collect(Customer.TO_TOTAL_ORDER_VALUE),
+                restored.getCustomers().collect(Customer.TO_TOTAL_ORDER_VALUE));
+        Assert.assertEquals(
+                ArrayIterate.collect(this.company.getSuppliers(), Supplier.TO_NAME),
+                ArrayIterate.collect(restored.getSuppliers(), Supplier.TO_NAME));
+        Assert.assertEquals(2, restored.getSuppliersOf("sofa").size());
+        Assert.assertEquals(2, restored.countCustomersIn("london"));
+        Assert.assertSame(restored.getCustomers().getLast(), restored.getCustomerNamed("bill"));
+        Assert.assertTrue(restored.newOrder().getOrderNumber() > 5L);
+    }
+
+    @Test
+    public void roundTripsAGeneratedCompany() throws IOException
+    {
+        Company generated = new CompanyGenerator(11L).withCustomersPerScale(300).generate("Generated", 1);
+        CompanySnapshot snapshot = this.writeAndOpen(generated);
+        Assert.assertEquals(generated.ordersView().size(), snapshot.getOrderCount());
+        Assert.assertEquals(
+                generated.getCustomers().collect(Customer.TO_TOTAL_ORDER_VALUE),
+                snapshot.customersView().collect(Customer.TO_TOTAL_ORDER_VALUE).toList());
+        Assert.assertEquals(
+                generated.getCustomers().collect(Customer.TO_CITY),
+                snapshot.toCompany().getCustomers().collect(Customer.TO_CITY));
+    }
+
+    @Test
+    public void failedWriteLeavesNoFile() throws IOException
+    {
+        File file = new File(this.folder.getRoot(), "company.snapshot");
+        this.failingWrite(file);
+        Assert.assertFalse(file.exists());
+        Assert.assertEquals(0, this.folder.getRoot().list().length);
+    }
+
+    @Test
+    public void failedWriteKeepsThePreviousSnapshot() throws IOException
+    {
+        File file = new File(this.folder.getRoot(), "company.snapshot");
+        CompanySnapshot.write(this.company, file);
+        this.failingWrite(file);
+        Assert.assertEquals(3, CompanySnapshot.open(file).getCustomerCount());
+        Assert.assertEquals(1, this.folder.getRoot().list().length);
+    }
+
+    private void failingWrite(File file) throws IOException
+    {
+        final boolean[] failing = {false};
+        this.company.addCustomer(new Customer("Pete", "Hastings")
+        {
+            @Override
+            public double getTotalOrderValue()
+            {
+                if (failing[0])
+                {
+                    throw new IllegalStateException("Pete's total could not be read");
+                }
+                return super.getTotalOrderValue();
+            }
+        });
+        failing[0] = true;
+        try
+        {
+            CompanySnapshot.write(this.company, file);
+            Assert.fail();
+        }
+        catch (IllegalStateException expected)
+        {
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFilesThatAreNotSnapshots() throws IOException
+    {
+        File file = this.folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file))
+        {
+            out.write(new byte[128]);
+        }
+        CompanySnapshot.open(file);
+    }
+}
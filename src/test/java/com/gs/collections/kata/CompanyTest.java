@@ -0,0 +1,429 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.gs.collections.api.LazyIterable;
+import com.gs.collections.api.bag.Bag;
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.api.set.MutableSet;
+import com.gs.collections.impl.block.factory.Predicates;
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.set.mutable.UnifiedSet;
+import com.gs.collections.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompanyTest extends CompanyDomainForKata
+{
+    @Test
+    public void ordersViewMatchesGetOrders()
+    {
+        Assert.assertEquals(this.company.getOrders(), this.company.ordersView().toList());
+        Assert.assertEquals(5, this.company.ordersView().size());
+    }
+
+    @Test
+    public void ordersViewIsLive()
+    {
+        LazyIterable<Order> orders = this.company.ordersView();
+        Customer pete = new Customer("Pete", "Hastings");
+        Order order = new Order();
+        order.addLineItem("kettle", 12.0);
+        pete.addOrder(order);
+        this.company.addCustomer(pete);
+
+        Verify.assertSize(6, orders.toList());
+        Assert.assertSame(order, orders.toList().getLast());
+        Assert.assertTrue(this.company.lineItemsView().collect(LineItem.TO_NAME).toSet().contains("kettle"));
+    }
+
+    @Test
+    public void lineItemsViewChainsWithoutCopying()
+    {
+        MutableSet<String> itemNames = this.company.lineItemsView().collect(LineItem.TO_NAME).toSet();
+        Assert.assertEquals(
+                UnifiedSet.newSetWith(
+                        "shed", "big shed", "bowl", "cat", "cup", "chair", "dog",
+                        "goldfish", "gnome", "saucer", "sofa", "table"),
+                itemNames);
+    }
+
+    @Test
+    public void getCustomerNamedIgnoresCase()
+    {
+        Assert.assertSame(this.company.getCustomers().get(1), this.company.getCustomerNamed("mARY"));
+        Assert.assertNull(this.company.getCustomerNamed("Mar"));
+        Assert.assertNull(this.company.getCustomerNamed(""));
+    }
+
+    @Test
+    public void customersSharingANameKeepInsertionOrder()
+    {
+        Customer otherFred = new Customer("FRED", "Liphook");
+        this.company.addCustomer(otherFred);
+
+        Customer fred = this.company.getCustomers().getFirst();
+        Assert.assertSame(fred, this.company.getCustomerNamed("fred"));
+        Assert.assertEquals(FastList.newListWith(fred, otherFred), this.company.getCustomersNamed("Fred"));
+        Assert.assertTrue(this.company.getCustomersNamed("Pete").isEmpty());
+    }
+
+    @Test
+    public void supplierSnapshotsAreNotResizedByLaterAdds()
+    {
+        Supplier[] before = this.company.getSuppliers();
+        Verify.assertSize(7, before);
+        Assert.assertSame(this.company.getSupplierSnapshot(), this.company.getSupplierSnapshot());
+
+        this.company.addSuppliers(
+                new Supplier("Kettles R Us", new String[]{"kettle"}),
+                new Supplier("Toasty", new String[]{"sandwich toaster"}));
+
+        Verify.assertSize(7, before);
+        Supplier[] after = this.company.getSuppliers();
+        Verify.assertSize(9, after);
+        Assert.assertEquals("Toasty", after[8].getName());
+        Assert.assertEquals(before[0], after[0]);
+    }
+
+    @Test
+    public void callersCannotChangeTheSuppliersOfOtherCallers()
+    {
+        Supplier first = this.company.getSuppliers()[0];
+        this.company.getSuppliers()[0] = null;
+        Assert.assertSame(first, this.company.getSuppliers()[0]);
+        Assert.assertSame(first, this.company.getSupplierNamed(first.getName()));
+        Assert.assertNotSame(this.company.getSupplierSnapshot(), this.company.getSuppliers());
+    }
+
+    @Test
+    public void supplierRegistryGrowsPastItsInitialCapacity()
+    {
+        for (int i = 0; i < 100; i++)
+        {
+            this.company.addSupplier(new Supplier("Supplier " + i, new String[]{"widget"}));
+        }
+        Supplier[] suppliers = this.company.getSuppliers();
+        Verify.assertSize(107, suppliers);
+        Assert.assertEquals("Supplier 99", suppliers[106].getName());
+    }
+
+    @Test
+    public void suppliersOfAnItem()
+    {
+        Assert.assertEquals(
+                FastList.newListWith("Furniture Hamlet", "SFD"),
+                this.company.getSuppliersOf("sofa").collect(Supplier.TO_NAME));
+        Assert.assertTrue(this.company.getSuppliersOf("spaceship").isEmpty());
+
+        this.company.addSupplier(new Supplier("Sofa So Good", new String[]{"sofa"}));
+        Assert.assertEquals(3, this.company.getSuppliersOf("sofa").size());
+        Assert.assertEquals(1, this.company.getSuppliersOf("gnome").size());
+    }
+
+    @Test
+    public void customerNamedNullIsNotFound()
+    {
+        Assert.assertNull(this.company.getCustomerNamed(null));
+    }
+
+    @Test
+    public void nullNamesAndCitiesFindNoOne()
+    {
+        Assert.assertTrue(this.company.getCustomersNamed(null).isEmpty());
+        Assert.assertTrue(this.company.getCustomersIn(null).isEmpty());
+        Assert.assertEquals(0, this.company.countCustomersIn(null));
+        Assert.assertFalse(this.company.hasCustomersIn(null));
+        Assert.assertEquals(0, this.company.deliverOrdersIn(null));
+    }
+
+    @Test
+    public void customerNamesAreNotInterned()
+    {
+        Customer zelda = new Customer("Zelda Quux-Marchbanks", "London");
+        this.company.addCustomer(zelda);
+        Assert.assertEquals(-1, SymbolTable.GLOBAL.lookupFolded("Zelda Quux-Marchbanks"));
+        Assert.assertSame(zelda, this.company.getCustomerNamed("ZELDA quux-marchbanks"));
+        Assert.assertEquals(
+                "Zelda Quux-Marchbanks",
+                this.company.toImmutable().getCustomerNamed("zelda QUUX-marchbanks").getName());
+    }
+
+    @Test
+    public void ordersAboveAValue()
+    {
+        Customer mary = this.company.getCustomerNamed("Mary");
+        Customer bill = this.company.getCustomerNamed("Bill");
+        Assert.assertEquals(
+                FastList.newListWith(mary.getOrders().getFirst(), bill.getOrders().getFirst()),
+                this.company.getOrdersAbove(100.0));
+        Assert.assertEquals(4, this.company.countOrdersAbove(1.5));
+        Assert.assertTrue(this.company.hasOrdersAbove(800.0));
+        Assert.assertFalse(this.company.hasOrdersAbove(1000.0));
+        Verify.assertEmpty(this.company.getOrdersAbove(1000.0));
+    }
+
+    @Test
+    public void ordersContainingAnItem()
+    {
+        Assert.assertEquals(
+                FastList.newListWith(
+                        this.company.getCustomerNamed("Fred").getOrders().getFirst(),
+                        this.company.getCustomerNamed("Bill").getOrders().getFirst()),
+                this.company.getOrdersContaining("SHED"));
+        Assert.assertEquals(2, this.company.countOrdersContaining("cup"));
+        Assert.assertEquals(0, this.company.countOrdersContaining("spaceship"));
+    }
+
+    @Test
+    public void suppliersByNameAndItem()
+    {
+        Assert.assertEquals("SFD", this.company.getSupplierNamed("SFD").getName());
+        Assert.assertNull(this.company.getSupplierNamed("Sofas R Us"));
+        Assert.assertEquals(2, this.company.countSuppliersOf("sofa"));
+        Assert.assertTrue(this.company.hasSuppliersOf("gnome"));
+        Assert.assertFalse(this.company.hasSuppliersOf("spaceship"));
+    }
+
+    @Test
+    public void parameterizedBlocks()
+    {
+        MutableList<Customer> customers = this.company.getCustomers();
+        Assert.assertEquals(
+                FastList.newListWith("Fred", "Bill"),
+                customers.selectWith(Customer.IN_CITY, "london").collect(Customer.TO_NAME));
+        Assert.assertSame(this.company.getCustomerNamed("Mary"), customers.detectWith(Customer.NAMED, "MARY"));
+        Assert.assertEquals(
+                FastList.newListWith(43, 0, 0),
+                this.company.getCustomerNamed("Bill").getOrders().collectWith(Order.TO_QUANTITY_OF, "Gnome"));
+    }
+
+    @Test
+    public void parameterizedBlocksResolveEachNewParameter()
+    {
+        MutableList<Customer> customers = this.company.getCustomers();
+        Assert.assertEquals(2, customers.countWith(Customer.IN_CITY, "London"));
+        Assert.assertEquals(1, customers.countWith(Customer.IN_CITY, new String("LIPHOOK")));
+        Assert.assertEquals(0, customers.countWith(Customer.IN_CITY, "Hastings"));
+        Assert.assertEquals(0, customers.countWith(Customer.IN_CITY, null));
+        Assert.assertEquals(1, customers.countWith(Customer.NAMED, "bill"));
+        Assert.assertEquals(0, customers.countWith(Customer.NAMED, "Bil"));
+        Assert.assertEquals(0, customers.countWith(Customer.NAMED, null));
+
+        MutableList<Order> billsOrders = this.company.getCustomerNamed("Bill").getOrders();
+        Assert.assertEquals(FastList.newListWith(0, 1, 0), billsOrders.collectWith(Order.TO_QUANTITY_OF, "BOWL"));
+        Assert.assertEquals(FastList.newListWith(0, 0, 0), billsOrders.collectWith(Order.TO_QUANTITY_OF, "spaceship"));
+        Assert.assertEquals(1, billsOrders.countWith(Order.CONTAINS_ITEM, "Goldfish"));
+        Assert.assertEquals(43, billsOrders.getFirst().getQuantityOf("GNOME"));
+        Assert.assertEquals(0, billsOrders.getFirst().getQuantityOf(null));
+    }
+
+    @Test
+    public void queriesFindParametersAddedAfterAnEarlierMiss()
+    {
+        Assert.assertEquals(0, this.company.countOrdersContaining("zeppelin"));
+        Customer bill = this.company.getCustomerNamed("Bill");
+        bill.getOrders().getFirst().addLineItem("zeppelin", 1000.0);
+        Assert.assertEquals(1, this.company.countOrdersContaining("zeppelin"));
+        Assert.assertEquals(
+                FastList.newListWith(bill.getOrders().getFirst()),
+                this.company.getOrdersContaining("ZEPPELIN"));
+        Assert.assertEquals(0, this.company.countOrdersContaining(null));
+
+        String atlantis = "Atlantis";
+        Assert.assertEquals(0, this.company.getCustomers().countWith(Customer.IN_CITY, atlantis));
+        this.company.addCustomer(new Customer("Nemo", atlantis));
+        Assert.assertEquals(1, this.company.getCustomers().countWith(Customer.IN_CITY, atlantis));
+        Assert.assertEquals(1, this.company.getCustomers().countWith(Customer.NAMED, "nemo"));
+    }
+
+    @Test
+    public void customersByCity()
+    {
+        Assert.assertEquals(
+                this.company.getCustomers().select(Customer.FROM_LONDON),
+                this.company.getCustomersIn("london"));
+        Assert.assertEquals(2, this.company.countCustomersIn("LONDON"));
+        Assert.assertTrue(this.company.hasCustomersIn("Liphook"));
+        Assert.assertFalse(this.company.hasCustomersIn("Hastings"));
+        Assert.assertEquals(0, this.company.countCustomersIn("Hastings"));
+    }
+
+    @Test
+    public void customerCountsByCityShareTheFirstSpelling()
+    {
+        this.company.addCustomer(new Customer("Pete", "LONDON"));
+
+        Bag<String> counts = this.company.getCustomerCountsByCity();
+        Assert.assertEquals(3, counts.occurrencesOf("London"));
+        Assert.assertEquals(1, counts.occurrencesOf("Liphook"));
+        Assert.assertEquals(0, counts.occurrencesOf("LONDON"));
+        Assert.assertEquals(3, this.company.countCustomersIn("london"));
+    }
+
+    @Test
+    public void concurrentCompanyReadsWhileCustomersAreAdded() throws Exception
+    {
+        final Company concurrentCompany = Company.newConcurrentCompany("Bloggs Shed Supplies");
+        final int customersPerWriter = 5000;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            MutableList<Future<?>> futures = FastList.newList();
+            for (int writer = 0; writer < 2; writer++)
+            {
+                final String prefix = "Writer " + writer + " customer ";
+                futures.add(executor.submit(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        for (int i = 0; i < customersPerWriter; i++)
+                        {
+                            Order order = concurrentCompany.newOrder();
+                            order.addLineItem("cup", 1.5);
+                            Customer customer = new Customer(prefix + i, i % 2 == 0 ? "London" : "Liphook");
+                            customer.addOrder(order);
+                            concurrentCompany.addCustomer(customer);
+                        }
+                    }
+                }));
+            }
+            for (int reader = 0; reader < 2; reader++)
+            {
+                futures.add(executor.submit(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        int lastSize = 0;
+                        while (lastSize < 2 * customersPerWriter)
+                        {
+                            MutableList<Customer> snapshot = concurrentCompany.getCustomers();
+                            int size = snapshot.size();
+                            Assert.assertTrue(size >= lastSize);
+                            Assert.assertEquals(size, snapshot.count(Predicates.notNull()));
+                            Assert.assertTrue(concurrentCompany.getCustomerNames().size() >= size);
+                            if (size > 0)
+                            {
+                                Customer last = snapshot.getLast();
+                                Assert.assertSame(last, concurrentCompany.getCustomerNamed(last.getName()));
+                            }
+                            lastSize = size;
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        Verify.assertSize(2 * customersPerWriter, concurrentCompany.getOrders());
+        Assert.assertEquals(customersPerWriter, concurrentCompany.countCustomersIn("london"));
+        Assert.assertNotNull(concurrentCompany.getCustomerNamed("writer 1 customer 4999"));
+        Verify.assertThrows(UnsupportedOperationException.class, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                concurrentCompany.getCustomers().add(new Customer("Pete", "Hastings"));
+            }
+        });
+    }
+
+    @Test
+    public void pendingOrdersComeFromTheDeliveryIndex()
+    {
+        Assert.assertEquals(5, this.company.countPendingOrders());
+        Assert.assertEquals(0, this.company.countDeliveredOrders());
+
+        Customer bill = this.company.getCustomerNamed("Bill");
+        bill.getOrders().get(1).deliver();
+        Assert.assertEquals(4, this.company.countPendingOrders());
+        Assert.assertEquals(1, this.company.countDeliveredOrders());
+        Assert.assertEquals(
+                FastList.newListWith(bill.getOrders().get(0), bill.getOrders().get(2)),
+                this.company.getPendingOrdersOf(Predicates.attributeEqual(Customer.TO_NAME, "Bill")));
+
+        Order order = new Order();
+        order.addLineItem("kettle", 12.0);
+        bill.addOrder(order);
+        Assert.assertEquals(5, this.company.countPendingOrders());
+        Assert.assertSame(order, this.company.getPendingOrders().getLast());
+    }
+
+    @Test
+    public void deliverOrdersOfMatchingCustomers()
+    {
+        Assert.assertEquals(4, this.company.deliverOrdersOf(Customer.FROM_LONDON));
+        Assert.assertEquals(0, this.company.deliverOrdersOf(Customer.FROM_LONDON));
+        Verify.assertAllSatisfy(this.company.getCustomerNamed("Fred").getOrders(), Order.IS_DELIVERED);
+        Verify.assertAllSatisfy(this.company.getCustomerNamed("Mary").getOrders(), Predicates.not(Order.IS_DELIVERED));
+        Assert.assertEquals(1, this.company.countPendingOrders());
+
+        Assert.assertEquals(1, this.company.deliverOrdersIn("LIPHOOK"));
+        Assert.assertTrue(this.company.getPendingOrders().isEmpty());
+    }
+
+    @Test
+    public void concurrentDeliveriesDeliverEachOrderOnce() throws Exception
+    {
+        final Company generated = new CompanyGenerator(13L).withCustomersPerScale(3000).generate("Generated", 1);
+        int orders = generated.countPendingOrders();
+        Assert.assertTrue(orders > 64 * 100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            MutableList<Future<Integer>> futures = FastList.newList();
+            for (int i = 0; i < 4; i++)
+            {
+                futures.add(executor.submit(new Callable<Integer>()
+                {
+                    @Override
+                    public Integer call()
+                    {
+                        return generated.deliverOrdersOf(Predicates.alwaysTrue());
+                    }
+                }));
+            }
+            int delivered = 0;
+            for (Future<Integer> future : futures)
+            {
+                delivered += future.get();
+            }
+            Assert.assertEquals(orders, delivered);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        Assert.assertEquals(orders, generated.countDeliveredOrders());
+        Assert.assertTrue(generated.getPendingOrders().isEmpty());
+        Verify.assertAllSatisfy(generated.getOrders(), Order.IS_DELIVERED);
+    }
+}
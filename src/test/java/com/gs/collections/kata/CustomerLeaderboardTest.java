@@ -0,0 +1,117 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.Random;
+
+import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.impl.list.mutable.FastList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CustomerLeaderboardTest extends CompanyDomainForKata
+{
+    @Test
+    public void ranksCustomersByTotalOrderValue()
+    {
+        CustomerLeaderboard leaderboard = this.company.getLeaderboard();
+        Assert.assertEquals(3, leaderboard.size());
+        Assert.assertEquals(FastList.newListWith("Mary", "Bill", "Fred"), leaderboard.getTop(3).collect(Customer.TO_NAME));
+        Assert.assertEquals(FastList.newListWith("Mary"), leaderboard.getTop(1).collect(Customer.TO_NAME));
+        Assert.assertEquals(FastList.newListWith("Fred", "Bill"), leaderboard.getBottom(2).collect(Customer.TO_NAME));
+        Assert.assertEquals(3, leaderboard.getTop(10).size());
+        Assert.assertEquals(1, leaderboard.getRank(this.company.getCustomerNamed("Mary")));
+        Assert.assertEquals(3, leaderboard.getRank(this.company.getCustomerNamed("Fred")));
+        Assert.assertEquals(-1, leaderboard.getRank(new Customer("Pete", "York")));
+    }
+
+    @Test
+    public void answersValueRanges()
+    {
+        CustomerLeaderboard leaderboard = this.company.getLeaderboard();
+        Assert.assertEquals(
+                FastList.newListWith("Mary", "Bill"),
+                leaderboard.getCustomersBetween(100.0, 857.0).collect(Customer.TO_NAME));
+        Assert.assertEquals(2, leaderboard.countCustomersBetween(100.0, 857.0));
+        Assert.assertEquals(0, leaderboard.countCustomersBetween(857.5, 10000.0));
+        Assert.assertEquals(0, leaderboard.countCustomersBetween(1.0, 0.0));
+    }
+
+    @Test
+    public void reRanksWhenOrdersAndLineItemsAreAdded()
+    {
+        CustomerLeaderboard leaderboard = this.company.getLeaderboard();
+        Customer fred = this.company.getCustomerNamed("Fred");
+        fred.getOrders().getFirst().addLineItem("huge shed", 1000.0);
+        Assert.assertEquals(1, leaderboard.getRank(fred));
+
+        Customer bill = this.company.getCustomerNamed("Bill");
+        Order order = new Order();
+        order.addLineItem("plasma screen", 2000.0);
+        bill.addOrder(order);
+        Assert.assertEquals(FastList.newListWith("Bill", "Fred", "Mary"), leaderboard.getTop(3).collect(Customer.TO_NAME));
+
+        Customer pete = new Customer("Pete", "York");
+        this.company.addCustomer(pete);
+        Assert.assertEquals(4, leaderboard.getRank(pete));
+    }
+
+    @Test
+    public void tiesRankInTheOrderCustomersWereAdded()
+    {
+        Company tied = new Company("Tied");
+        tied.addCustomer(new Customer("First", "York"));
+        tied.addCustomer(new Customer("Second", "York"));
+        Assert.assertEquals(FastList.newListWith("First", "Second"), tied.getLeaderboard().getTop(2).collect(Customer.TO_NAME));
+        Assert.assertEquals(FastList.newListWith("Second", "First"), tied.getLeaderboard().getBottom(2).collect(Customer.TO_NAME));
+    }
+
+    @Test
+    public void agreesWithSortingAfterRandomUpdates()
+    {
+        Company generated = new CompanyGenerator(21L).withCustomersPerScale(400).generate("Generated", 1);
+        MutableList<Customer> customers = generated.getCustomers();
+        Random random = new Random(21L);
+        for (int i = 0; i < 500; i++)
+        {
+            Customer customer = customers.get(random.nextInt(customers.size()));
+            customer.getOrders().get(random.nextInt(customer.getOrders().size())).addLineItem("cup", 1 + random.nextInt(3), 1.5);
+        }
+        MutableList<Customer> sorted = customers.toSortedListBy(Customer.TO_TOTAL_ORDER_VALUE).reverseThis();
+        CustomerLeaderboard leaderboard = generated.getLeaderboard();
+        Assert.assertEquals(
+                sorted.collect(Customer.TO_TOTAL_ORDER_VALUE),
+                leaderboard.getTop(customers.size()).collect(Customer.TO_TOTAL_ORDER_VALUE));
+        for (Customer customer : customers)
+        {
+            Assert.assertEquals(customer.getTotalOrderValue(), sorted.get(leaderboard.getRank(customer) - 1).getTotalOrderValue(), 0.0);
+        }
+        final double low = sorted.get(300).getTotalOrderValue();
+        final double high = sorted.get(100).getTotalOrderValue();
+        Assert.assertEquals(
+                customers.count(new Predicate<Customer>()
+                {
+                    @Override
+                    public boolean accept(Customer each)
+                    {
+                        return each.getTotalOrderValue() >= low && each.getTotalOrderValue() <= high;
+                    }
+                }),
+                leaderboard.countCustomersBetween(low, high));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CustomerTest
+{
+    @Test
+    public void totalOrderValueFollowsAddedOrders()
+    {
+        Customer customer = new Customer("Fred", "London");
+        Assert.assertEquals(0.0, customer.getTotalOrderValue(), 0.0);
+
+        Order first = new Order();
+        first.addLineItem("shed", 50.0);
+        customer.addOrder(first);
+        Assert.assertEquals(50.0, customer.getTotalOrderValue(), 0.0);
+
+        Order second = new Order();
+        second.addLineItem("cup", 1.5);
+        customer.addOrder(second);
+        Assert.assertEquals(51.5, customer.getTotalOrderValue(), 0.0);
+    }
+
+    @Test
+    public void lineItemsAddedToAnAttachedOrderInvalidateTheTotal()
+    {
+        Customer customer = new Customer("Mary", "Liphook");
+        Order order = new Order();
+        customer.addOrder(order);
+        Assert.assertEquals(0.0, customer.getTotalOrderValue(), 0.0);
+
+        order.addLineItem("sofa", 120.0);
+        Assert.assertEquals(120.0, customer.getTotalOrderValue(), 0.0);
+
+        order.getLineItems().add(new LineItem("dog", 75.0));
+        Assert.assertEquals(195.0, order.getValue(), 0.0);
+        Assert.assertEquals(195.0, customer.getTotalOrderValue(), 0.0);
+        Assert.assertSame(customer, order.getCustomer());
+    }
+
+    @Test
+    public void ordersAddedStraightToTheListAreCounted()
+    {
+        Customer customer = new Customer("Bill", "London");
+        Order order = new Order();
+        order.addLineItem("table", 1.0);
+        customer.addOrder(order);
+        Assert.assertEquals(1.0, customer.getTotalOrderValue(), 0.0);
+
+        Order other = new Order();
+        other.addLineItem("bowl", 1.25);
+        customer.getOrders().add(other);
+        Assert.assertEquals(2.25, customer.getTotalOrderValue(), 0.0);
+    }
+
+    @Test
+    public void lineItemsAddedToAnOrderAddedStraightToTheListAreCounted()
+    {
+        Customer customer = new Customer("Bill", "London");
+        Order order = new Order();
+        customer.getOrders().add(order);
+        Assert.assertEquals(0.0, customer.getTotalOrderValue(), 0.0);
+
+        order.addLineItem("thing", 5.0);
+        Assert.assertEquals(5.0, order.getValue(), 0.0);
+        Assert.assertEquals(5.0, customer.getTotalOrderValue(), 0.0);
+        Assert.assertSame(customer, order.getCustomer());
+    }
+
+    @Test
+    public void totalIsExactlyTheSumOfTheOrderValues()
+    {
+        Customer customer = new Customer("Bill", "London");
+        Company company = new Company("Shed Supplies");
+        company.addCustomer(customer);
+        Order first = new Order();
+        Order second = new Order();
+        customer.addOrder(first);
+        customer.addOrder(second);
+        for (int i = 0; i < 100; i++)
+        {
+            first.addLineItem("cup", 0.01 + 0.1 * (i % 7));
+            second.addLineItem("saucer", 0.3 / (i + 1));
+            Assert.assertEquals(first.getValue() + second.getValue(), customer.getTotalOrderValue(), 0.0);
+        }
+        Order third = new Order();
+        third.addLineItem("bowl", 1.0 / 3.0);
+        customer.addOrder(third);
+        first.addLineItem("cup", 0.7);
+        Assert.assertEquals(
+                first.getValue() + second.getValue() + third.getValue(),
+                customer.getTotalOrderValue(),
+                0.0);
+        Assert.assertEquals(
+                customer.getTotalOrderValue(),
+                company.toImmutable().getCustomers().getFirst().getTotalOrderValue(),
+                0.0);
+    }
+
+    @Test
+    public void ordersOwnedByAnotherCustomerAreNotTakenOver()
+    {
+        Customer mary = new Customer("Mary", "Liphook");
+        Order order = new Order();
+        mary.addOrder(order);
+        Customer bill = new Customer("Bill", "London");
+        bill.getOrders().add(order);
+        Assert.assertEquals(0.0, bill.getTotalOrderValue(), 0.0);
+        Assert.assertSame(mary, order.getCustomer());
+    }
+}
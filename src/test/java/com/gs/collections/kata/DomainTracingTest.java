@@ -0,0 +1,151 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.test.Verify;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DomainTracingTest extends CompanyDomainForKata
+{
+    private final RecordingTracer tracer = new RecordingTracer();
+
+    @Before
+    public void installTracer()
+    {
+        DomainTracing.setTracer(this.tracer);
+    }
+
+    @After
+    public void uninstallTracer()
+    {
+        DomainTracing.setTracer(null);
+    }
+
+    @Test
+    public void tracesOperationsWithTheirCounts()
+    {
+        this.company.getOrders();
+        Customer bill = this.company.getCustomerNamed("Bill");
+        bill.getTotalOrderValue();
+        // a line item on the latest order extends the cached total, but an order added straight to the list makes the
+        // next read revalue
+        bill.getOrders().getLast().addLineItem("pen", 1.0);
+        bill.getTotalOrderValue();
+        bill.getOrders().add(new Order());
+        bill.getTotalOrderValue();
+        this.company.getSuppliers();
+        this.company.getSuppliersOf("sofa");
+
+        Assert.assertEquals(
+                FastList.newListWith(
+                        "getOrders customers=3 orders=5",
+                        "customerValue Bill orders=3 lineItems=0",
+                        "customerValue Bill orders=3 lineItems=0",
+                        "orderValue lineItems=44",
+                        "orderValue lineItems=2",
+                        "orderValue lineItems=2",
+                        "orderValue lineItems=0",
+                        "customerValue Bill orders=4 lineItems=48",
+                        "supplierScan null suppliers=7",
+                        "supplierScan sofa suppliers=2"),
+                this.tracer.traces);
+    }
+
+    @Test
+    public void untracedCallsAreNotEnded()
+    {
+        this.tracer.tracing = false;
+        this.company.getOrders();
+        this.company.getSuppliers();
+        Verify.assertEmpty(this.tracer.traces);
+    }
+
+    @Test
+    public void tracerRemovedMidCallDropsTheTrace()
+    {
+        Object trace = DomainTracing.beginGetOrders();
+        DomainTracing.setTracer(null);
+        DomainTracing.endGetOrders(trace, 1, 1);
+        Assert.assertNotNull(trace);
+        Verify.assertEmpty(this.tracer.traces);
+    }
+
+    private static final class RecordingTracer
+            implements DomainTracer
+    {
+        private final MutableList<String> traces = FastList.newList();
+        private boolean tracing = true;
+
+        private Object begin()
+        {
+            return this.tracing ? this : null;
+        }
+
+        @Override
+        public Object beginGetOrders()
+        {
+            return this.begin();
+        }
+
+        @Override
+        public void endGetOrders(Object trace, int customers, int orders)
+        {
+            this.traces.add("getOrders customers=" + customers + " orders=" + orders);
+        }
+
+        @Override
+        public Object beginOrderValue()
+        {
+            return this.begin();
+        }
+
+        @Override
+        public void endOrderValue(Object trace, long orderNumber, int lineItems)
+        {
+            this.traces.add("orderValue lineItems=" + lineItems);
+        }
+
+        @Override
+        public Object beginCustomerValue()
+        {
+            return this.begin();
+        }
+
+        @Override
+        public void endCustomerValue(Object trace, String customerName, int orders, int lineItems)
+        {
+            this.traces.add("customerValue " + customerName + " orders=" + orders + " lineItems=" + lineItems);
+        }
+
+        @Override
+        public Object beginSupplierScan()
+        {
+            return this.begin();
+        }
+
+        @Override
+        public void endSupplierScan(Object trace, String itemName, int suppliers)
+        {
+            this.traces.add("supplierScan " + itemName + " suppliers=" + suppliers);
+        }
+    }
+}
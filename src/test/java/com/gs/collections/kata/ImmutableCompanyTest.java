@@ -0,0 +1,121 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableCompanyTest extends CompanyDomainForKata
+{
+    @Test
+    public void copiesCustomersOrdersAndSuppliers()
+    {
+        ImmutableCompany copy = this.company.toImmutable();
+        Assert.assertEquals("Bloggs Shed Supplies", copy.getName());
+        Assert.assertEquals(
+                this.company.getCustomerNames(),
+                copy.getCustomers().collect(ImmutableCustomer.TO_NAME));
+        Assert.assertEquals(
+                this.company.getOrders().collect(Order.TO_VALUE),
+                copy.getOrders().collect(ImmutableOrder.TO_VALUE));
+        Assert.assertEquals(
+                this.company.lineItemsView().collect(LineItem.TO_NAME).toList(),
+                copy.getOrders().flatCollect(ImmutableOrder.TO_LINE_ITEMS).collect(LineItem.TO_NAME));
+        Assert.assertEquals(7, copy.getSuppliers().size());
+        Assert.assertEquals("Bill", copy.getMostRecentCustomer().getName());
+    }
+
+    @Test
+    public void derivedValuesAgreeWithTheCompany()
+    {
+        ImmutableCompany copy = this.company.toImmutable();
+        double total = 0.0;
+        for (Customer customer : this.company.getCustomers())
+        {
+            ImmutableCustomer customerCopy = copy.getCustomerNamed(customer.getName());
+            Assert.assertEquals(customer.getTotalOrderValue(), customerCopy.getTotalOrderValue(), 0.0);
+            total += customer.getTotalOrderValue();
+        }
+        Assert.assertEquals(total, copy.getTotalOrderValue(), 0.0);
+        ImmutableOrder billsFirst = copy.getCustomerNamed("Bill").getOrders().getFirst();
+        Assert.assertEquals(372.5, billsFirst.getValue(), 0.0);
+        Assert.assertSame(copy.getCustomerNamed("Bill"), billsFirst.getCustomer());
+        Assert.assertTrue(billsFirst.containsItem("GNOME"));
+    }
+
+    @Test
+    public void lookupsUseTheIndexes()
+    {
+        ImmutableCompany copy = this.company.toImmutable();
+        Assert.assertEquals("Mary", copy.getCustomerNamed("mary").getName());
+        Assert.assertNull(copy.getCustomerNamed("Pete"));
+        Assert.assertEquals(
+                FastList.newListWith("Fred", "Bill"),
+                copy.getCustomersIn("LONDON").collect(ImmutableCustomer.TO_NAME));
+        Verify.assertIterableEmpty(copy.getCustomersIn("Atlantis"));
+        Assert.assertNull(copy.getCustomerNamed(null));
+        Verify.assertIterableEmpty(copy.getCustomersIn(null));
+        Assert.assertEquals(
+                FastList.newListWith("Furniture Hamlet", "SFD"),
+                copy.getSuppliersOf("sofa").collect(ImmutableSupplier.TO_NAME));
+        Assert.assertTrue(copy.getSuppliersOf("sofa").getLast().carries("chair"));
+        Verify.assertIterableEmpty(copy.getSuppliersOf("spaceship"));
+    }
+
+    @Test
+    public void indexesIgnoreCaseWithoutTheSymbolTable()
+    {
+        Customer zelda = new Customer("Zelda Quux-Marchbanks", "London");
+        this.company.addCustomer(zelda);
+        this.company.addCustomer(new Customer("zelda QUUX-marchbanks", "LONDON"));
+        ImmutableCompany copy = this.company.toImmutable();
+        Assert.assertEquals(-1, SymbolTable.GLOBAL.lookupFolded("Zelda Quux-Marchbanks"));
+        Assert.assertEquals(
+                FastList.newListWith("Zelda Quux-Marchbanks", "zelda QUUX-marchbanks"),
+                copy.getCustomersNamed("ZELDA QUUX-MARCHBANKS").collect(ImmutableCustomer.TO_NAME));
+        Assert.assertEquals(
+                FastList.newListWith("Fred", "Bill", "Zelda Quux-Marchbanks", "zelda QUUX-marchbanks"),
+                copy.getCustomersIn("london").collect(ImmutableCustomer.TO_NAME));
+    }
+
+    @Test
+    public void laterChangesAreNotSeen()
+    {
+        ImmutableCompany copy = this.company.toImmutable();
+        Customer fred = this.company.getCustomerNamed("Fred");
+        fred.getOrders().getFirst().addLineItem("gnome", 7.5);
+        fred.getOrders().getFirst().deliver();
+        this.company.addCustomer(new Customer("Pete", "London"));
+        this.company.addSupplier(new Supplier("Gnome Home", new String[]{"gnome"}));
+
+        Assert.assertEquals(3, copy.getCustomers().size());
+        Assert.assertEquals(2, copy.getCustomersIn("London").size());
+        ImmutableOrder fredsOrder = copy.getCustomerNamed("Fred").getOrders().getFirst();
+        Assert.assertEquals(9, fredsOrder.getLineItems().size());
+        Assert.assertEquals(71.0, fredsOrder.getValue(), 0.0);
+        Assert.assertFalse(fredsOrder.isDelivered());
+        Assert.assertEquals(1, copy.getSuppliersOf("gnome").size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void customersCannotBeAdded()
+    {
+        this.company.toImmutable().getCustomers().castToList().add(null);
+    }
+}
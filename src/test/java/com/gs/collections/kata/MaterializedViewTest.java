@@ -0,0 +1,226 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.gs.collections.api.block.function.primitive.DoubleFunction;
+import com.gs.collections.api.list.MutableList;
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.map.mutable.UnifiedMap;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MaterializedViewTest extends CompanyDomainForKata
+{
+    private final RevenueByCityView revenueByCity = new RevenueByCityView();
+    private final RevenueByItemView revenueByItem = new RevenueByItemView();
+    private final CustomersByCityView customersByCity = new CustomersByCityView();
+
+    @Before
+    public void attachViews()
+    {
+        this.revenueByCity.attachTo(this.company);
+        this.revenueByItem.attachTo(this.company);
+        this.customersByCity.attachTo(this.company);
+    }
+
+    @Test
+    public void viewsStartFromTheCurrentCustomers()
+    {
+        Assert.assertEquals(UnifiedMap.newWithKeysValues("London", 446.25, "Liphook", 857.0), this.revenueByCity.toMap());
+        Assert.assertEquals(100.0, this.revenueByItem.getRevenue("shed"), 0.0);
+        Assert.assertEquals(10.5, this.revenueByItem.getRevenue("cup"), 0.0);
+        Assert.assertEquals(12, this.revenueByItem.toMap().size());
+        Assert.assertEquals(this.company.getCustomers().groupBy(Customer.TO_CITY), this.customersByCity.toMultimap());
+    }
+
+    @Test
+    public void viewsFollowNewCustomersOrdersAndLineItems()
+    {
+        Customer fred = this.company.getCustomerNamed("Fred");
+        fred.getOrders().getFirst().addLineItem("shed", 2, 50.0);
+        Assert.assertEquals(546.25, this.revenueByCity.getRevenue("London"), 0.0);
+        Assert.assertEquals(200.0, this.revenueByItem.getRevenue("shed"), 0.0);
+
+        Order order = new Order();
+        order.addLineItem("kettle", 10.0);
+        this.company.getCustomerNamed("Mary").addOrder(order);
+        order.addLineItem("kettle", 2.5);
+        Assert.assertEquals(869.5, this.revenueByCity.getRevenue("Liphook"), 0.0);
+        Assert.assertEquals(12.5, this.revenueByItem.getRevenue("kettle"), 0.0);
+
+        Customer pete = new Customer("Pete", "York");
+        Order peteOrder = new Order();
+        peteOrder.addLineItem("gnome", 3, 7.5);
+        pete.addOrder(peteOrder);
+        this.company.addCustomer(pete);
+        Assert.assertEquals(22.5, this.revenueByCity.getRevenue("York"), 0.0);
+        Assert.assertEquals(345.0, this.revenueByItem.getRevenue("gnome"), 0.0);
+        Assert.assertEquals(FastList.newListWith(pete), this.customersByCity.getCustomers("York"));
+    }
+
+    @Test
+    public void viewsAgreeWithRecomputingOnAGeneratedCompany()
+    {
+        Company generated = new Company("Generated");
+        RevenueByCityView byCity = new RevenueByCityView();
+        byCity.attachTo(generated);
+        new CompanyGenerator(17L).withCustomersPerScale(300).generate(generated, 1);
+        for (Customer customer : generated.getCustomers())
+        {
+            customer.getOrders().getFirst().addLineItem("cup", 1.5);
+        }
+        for (String city : generated.getCustomers().collect(Customer.TO_CITY).toSet())
+        {
+            double expected = generated.getCustomersIn(city).toList().sumOfDouble(new DoubleFunction<Customer>()
+            {
+                @Override
+                public double doubleValueOf(Customer customer)
+                {
+                    return customer.getTotalOrderValue();
+                }
+            });
+            Assert.assertEquals(expected, byCity.getRevenue(city), 1.0e-6);
+        }
+    }
+
+    @Test
+    public void viewsAttachedWhileLineItemsAreAddedCountEachOnce() throws Exception
+    {
+        final Customer fred = this.company.getCustomerNamed("Fred");
+        final int orders = 200;
+        final int lineItemsPerOrder = 100;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            Future<?> adding = executor.submit(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    for (int i = 0; i < orders; i++)
+                    {
+                        Order order = new Order();
+                        order.addLineItem("kettle", 1.0);
+                        fred.addOrder(order);
+                        for (int j = 1; j < lineItemsPerOrder; j++)
+                        {
+                            order.addLineItem("kettle", 1.0);
+                        }
+                    }
+                    return null;
+                }
+            });
+            // each view is another listener to notify, so attach a bounded number while the orders are added
+            MutableList<RevenueByItemView> views = FastList.newList();
+            while (!adding.isDone() && views.size() < orders)
+            {
+                Thread.yield();
+                RevenueByItemView view = new RevenueByItemView();
+                view.attachTo(this.company);
+                views.add(view);
+            }
+            adding.get();
+            for (RevenueByItemView view : views)
+            {
+                Assert.assertEquals(orders * lineItemsPerOrder, view.getRevenue("kettle"), 0.0);
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void lineItemsAndDeliveriesDoNotWaitForTheChangeLock() throws Exception
+    {
+        final Order order = this.company.getCustomerNamed("Fred").getOrders().getFirst();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            synchronized (this.company.getChangeLock())
+            {
+                Future<Boolean> changing = executor.submit(new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call()
+                    {
+                        order.addLineItem("kettle", 1.0);
+                        return order.tryDeliver();
+                    }
+                });
+                Assert.assertTrue(changing.get(10L, TimeUnit.SECONDS));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void listenersReceiveTypedEvents()
+    {
+        final MutableList<String> events = FastList.newList();
+        CompanyListener listener = new CompanyListener()
+        {
+            @Override
+            public void customerAdded(Customer customer)
+            {
+                events.add("customer " + customer.getName());
+            }
+
+            @Override
+            public void orderAdded(Order order)
+            {
+                events.add("order for " + order.getCustomer().getName());
+            }
+
+            @Override
+            public void lineItemAdded(Order order, String itemName, int quantity, double unitPrice)
+            {
+                events.add(quantity + " " + itemName);
+            }
+
+            @Override
+            public void orderDelivered(Order order)
+            {
+                events.add("delivered to " + order.getCustomer().getName());
+            }
+        };
+        this.company.addListener(listener);
+        Customer pete = new Customer("Pete", "York");
+        this.company.addCustomer(pete);
+        Order order = new Order();
+        pete.addOrder(order);
+        order.addLineItem("sofa", 2, 120.0);
+        order.deliver();
+        order.deliver();
+        this.company.removeListener(listener);
+        order.addLineItem("chair", 12.5);
+        Assert.assertEquals(
+                FastList.newListWith("customer Pete", "order for Pete", "2 sofa", "delivered to Pete"),
+                events);
+    }
+}
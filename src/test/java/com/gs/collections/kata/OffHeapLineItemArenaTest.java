@@ -0,0 +1,101 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapLineItemArenaTest
+{
+    @Test
+    public void ordersReadTheirLineItemsFromTheArena()
+    {
+        OffHeapLineItemArena arena = new OffHeapLineItemArena();
+        Order order = new Order(new OrderNumberAllocator(), arena, 2);
+        order.addLineItem("cup", 3, 1.5);
+        order.addLineItem("Saucer", 1.0);
+        Assert.assertEquals(5.5, order.getValue(), 0.0);
+        Assert.assertEquals("[3 x cup $ 1.5, Saucer $ 1.0]", order.getLineItems().toString());
+        Assert.assertEquals("[cup, Saucer]", order.getLineItemNames().toString());
+        Assert.assertTrue(order.containsItem("saucer"));
+        Assert.assertFalse(order.containsItem("shed"));
+        Assert.assertEquals(64L << 20, arena.getAllocatedBytes());
+    }
+
+    @Test
+    public void ordersGrowIntoNewRunsAndChunks()
+    {
+        OffHeapLineItemArena arena = new OffHeapLineItemArena(OffHeapLineItemArena.RECORD_SIZE * 10);
+        OrderNumberAllocator orderNumbers = new OrderNumberAllocator();
+        Order first = new Order(orderNumbers, arena, 1);
+        Order second = new Order(orderNumbers, arena, 1);
+        double total = 0.0;
+        for (int i = 1; i <= 6; i++)
+        {
+            first.addLineItem("item " + i, i, 2.0);
+            second.addLineItem("other " + i, 1, i);
+            total += i;
+        }
+        Assert.assertEquals(2.0 * total, first.getValue(), 0.0);
+        Assert.assertEquals(total, second.getValue(), 0.0);
+        Assert.assertEquals("6 x item 6 $ 2.0", first.getLineItems().get(5).toString());
+        Assert.assertEquals("other 1 $ 1.0", second.getLineItems().get(0).toString());
+        Assert.assertTrue(arena.getAllocatedBytes() > OffHeapLineItemArena.RECORD_SIZE * 10);
+    }
+
+    @Test
+    public void companyCreatesOrdersInItsArena()
+    {
+        OffHeapLineItemArena arena = new OffHeapLineItemArena();
+        Company heap = new CompanyGenerator(9L).withCustomersPerScale(200).generate("Heap", 1);
+        Company offHeap = new CompanyGenerator(9L).withCustomersPerScale(200).generate(new Company("Off heap", arena), 1);
+        Assert.assertEquals(
+                heap.getCustomers().collect(Customer.TO_TOTAL_ORDER_VALUE),
+                offHeap.getCustomers().collect(Customer.TO_TOTAL_ORDER_VALUE));
+        Assert.assertEquals(
+                heap.lineItemsView().collect(LineItem.TO_NAME).toList(),
+                offHeap.lineItemNamesView().toList());
+        Assert.assertEquals(64L << 20, arena.getAllocatedBytes());
+    }
+
+    @Test
+    public void closedArenaRejectsReadsAndWrites()
+    {
+        OffHeapLineItemArena arena = new OffHeapLineItemArena();
+        Order order = new Order(new OrderNumberAllocator(), arena, 4);
+        order.addLineItem("shed", 50.0);
+        arena.close();
+        Assert.assertTrue(arena.isClosed());
+        Assert.assertEquals(50.0, order.getValue(), 0.0);
+        try
+        {
+            order.getLineItems().get(0);
+            Assert.fail();
+        }
+        catch (IllegalStateException expected)
+        {
+        }
+        try
+        {
+            order.addLineItem("cup", 1.5);
+            Assert.fail();
+        }
+        catch (IllegalStateException expected)
+        {
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.list.MutableList;
+
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.set.mutable.primitive.LongHashSet;
+import com.gs.collections.impl.test.Verify;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OrderTest
+{
+    @Test
+    public void valueOfEmptyOrder()
+    {
+        Assert.assertEquals(0.0, new Order().getValue(), 0.0);
+    }
+
+    @Test
+    public void lineItemsAreAViewOverTheColumns()
+    {
+        Order order = new Order();
+        order.addLineItem(new LineItem("cup", 1.5));
+        order.addLineItem("saucer", 1.0);
+        order.addLineItem("cup", 1.5);
+
+        List<LineItem> lineItems = order.getLineItems();
+        Verify.assertSize(3, lineItems);
+        Assert.assertEquals(
+                FastList.newListWith("cup", "saucer", "cup"),
+                FastList.newList(lineItems).collect(LineItem.TO_NAME));
+        Assert.assertEquals(4.0, order.getValue(), 0.0);
+
+        lineItems.add(new LineItem("bowl", 1.25));
+        Verify.assertSize(4, order.getLineItems());
+        Assert.assertEquals(5.25, order.getValue(), 0.0);
+        Assert.assertEquals("bowl", order.getLineItems().get(3).getName());
+    }
+
+    @Test
+    public void lineItemsAreValues()
+    {
+        Order order = new Order();
+        LineItem cups = new LineItem("cup", 3, 1.5);
+        order.addLineItem("saucer", 1.0);
+        order.addLineItem(cups);
+
+        List<LineItem> lineItems = order.getLineItems();
+        Assert.assertTrue(lineItems.contains(cups));
+        Assert.assertEquals(1, lineItems.indexOf(new LineItem("cup", 3, 1.5)));
+        Assert.assertEquals(-1, lineItems.indexOf(new LineItem("cup", 1.5)));
+        Assert.assertFalse(lineItems.contains(new LineItem("Cup", 3, 1.5)));
+        Verify.assertEqualsAndHashCode(cups, lineItems.get(1));
+        Assert.assertEquals(FastList.newListWith(new LineItem("saucer", 1.0), cups), FastList.newList(lineItems));
+    }
+
+    @Test
+    public void storeGrowsPastItsInitialCapacity()
+    {
+        Order order = new Order();
+        for (int i = 0; i < 1000; i++)
+        {
+            order.addLineItem("gnome", 7.50);
+        }
+        Verify.assertSize(1000, order.getLineItems());
+        Assert.assertEquals(7500.0, order.getValue(), 0.0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void lineItemsCanOnlyBeAppended()
+    {
+        Order order = new Order();
+        order.addLineItem("cup", 1.5);
+        order.getLineItems().add(0, new LineItem("saucer", 1.0));
+    }
+
+    @Test
+    public void orderNumbersAreSequentialOnOneThread()
+    {
+        OrderNumberAllocator orderNumbers = new OrderNumberAllocator(4);
+        for (long expected = 1L; expected <= 10L; expected++)
+        {
+            Assert.assertEquals(expected, new Order(orderNumbers).getOrderNumber());
+        }
+        orderNumbers.reset();
+        Assert.assertEquals(1L, new Order(orderNumbers).getOrderNumber());
+    }
+
+    @Test
+    public void companiesNumberTheirOwnOrders()
+    {
+        Company first = new Company("First");
+        Company second = new Company("Second");
+        Assert.assertEquals(1L, first.newOrder().getOrderNumber());
+        Assert.assertEquals(2L, first.newOrder().getOrderNumber());
+        Assert.assertEquals(1L, second.newOrder().getOrderNumber());
+    }
+
+    @Test
+    public void parallelOrderCreationNeverDuplicatesANumber() throws Exception
+    {
+        final OrderNumberAllocator orderNumbers = new OrderNumberAllocator(16);
+        final int ordersPerThread = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            MutableList<Future<LongHashSet>> futures = FastList.newList();
+            for (int i = 0; i < 4; i++)
+            {
+                futures.add(executor.submit(new Callable<LongHashSet>()
+                {
+                    @Override
+                    public LongHashSet call()
+                    {
+                        LongHashSet numbers = new LongHashSet();
+                        for (int j = 0; j < ordersPerThread; j++)
+                        {
+                            numbers.add(new Order(orderNumbers).getOrderNumber());
+                        }
+                        return numbers;
+                    }
+                }));
+            }
+            LongHashSet allNumbers = new LongHashSet();
+            for (Future<LongHashSet> future : futures)
+            {
+                allNumbers.addAll(future.get());
+            }
+            Assert.assertEquals(4 * ordersPerThread, allNumbers.size());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void quantityIsKeptOnOneLineItem()
+    {
+        Order order = new Order();
+        order.addLineItem("gnome", 10000, 7.50);
+        order.addLineItem(new LineItem("cup", 3, 1.5));
+
+        Verify.assertSize(2, order.getLineItems());
+        Assert.assertEquals(75004.5, order.getValue(), 0.0);
+
+        LineItem gnomes = order.getLineItems().get(0);
+        Assert.assertEquals(10000, gnomes.getQuantity());
+        Assert.assertEquals(7.50, gnomes.getUnitPrice(), 0.0);
+        Assert.assertEquals(75000.0, gnomes.getValue(), 0.0);
+        Assert.assertEquals("10000 x gnome $ 7.5", gnomes.toString());
+    }
+
+    @Test
+    public void unitLineItemsView()
+    {
+        Order order = new Order();
+        order.addLineItem("shed", 50.0);
+        order.addLineItem("cup", 3, 1.5);
+
+        Assert.assertEquals(
+                FastList.newListWith("shed", "cup", "cup", "cup"),
+                order.unitLineItemsView().collect(LineItem.TO_NAME).toList());
+        Assert.assertEquals(4, order.unitLineItemsView().size());
+        Assert.assertTrue(order.unitLineItemsView().allSatisfy(new Predicate<LineItem>()
+        {
+            @Override
+            public boolean accept(LineItem each)
+            {
+                return each.getQuantity() == 1;
+            }
+        }));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quantityMustBePositive()
+    {
+        new Order().addLineItem("cup", 0, 1.5);
+    }
+}
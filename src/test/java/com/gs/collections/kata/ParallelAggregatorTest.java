@@ -0,0 +1,171 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.gs.collections.api.block.function.Function0;
+import com.gs.collections.api.block.function.Function2;
+import com.gs.collections.api.map.MutableMap;
+import com.gs.collections.impl.test.Verify;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelAggregatorTest extends CompanyDomainForKata
+{
+    private static final Function0<Double> ZERO = new Function0<Double>()
+    {
+        @Override
+        public Double value()
+        {
+            return 0.0;
+        }
+    };
+
+    private static final Function2<Double, Double, Double> SUM = new Function2<Double, Double, Double>()
+    {
+        @Override
+        public Double value(Double total, Double each)
+        {
+            return total + each;
+        }
+    };
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void tearDown()
+    {
+        this.pool.shutdown();
+    }
+
+    @Test
+    public void totalOrderValuesByCity()
+    {
+        MutableMap<String, Double> expected = this.company.getCustomers().aggregateBy(
+                Customer.TO_CITY,
+                ZERO,
+                new Function2<Double, Customer, Double>()
+                {
+                    @Override
+                    public Double value(Double total, Customer customer)
+                    {
+                        return total + customer.getTotalOrderValue();
+                    }
+                });
+
+        MutableMap<String, Double> actual = new ParallelAggregator(this.pool, 1).totalOrderValuesByCity(this.company);
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(446.25, actual.get("London"), 0.0);
+    }
+
+    @Test
+    public void totalOrderValuesByItem()
+    {
+        MutableMap<String, Double> expected = this.company.getOrders().flatCollect(Order.TO_LINE_ITEMS).aggregateBy(
+                LineItem.TO_NAME,
+                ZERO,
+                new Function2<Double, LineItem, Double>()
+                {
+                    @Override
+                    public Double value(Double total, LineItem lineItem)
+                    {
+                        return total + lineItem.getValue();
+                    }
+                });
+
+        MutableMap<String, Double> actual = new ParallelAggregator(this.pool, 1).totalOrderValuesByItem(this.company);
+        Assert.assertEquals(expected, actual);
+        Verify.assertSize(12, actual);
+        Assert.assertEquals(10.5, actual.get("cup"), 0.0);
+    }
+
+    @Test
+    public void manyCustomersSplitIntoBatches()
+    {
+        for (int i = 0; i < 500; i++)
+        {
+            Customer customer = new Customer("Customer " + i, i % 2 == 0 ? "London" : "Liphook");
+            for (int j = 0; j < i % 5; j++)
+            {
+                Order order = new Order();
+                order.addLineItem("cup", 1.5);
+                order.addLineItem("saucer", 1.0);
+                customer.addOrder(order);
+            }
+            this.company.addCustomer(customer);
+        }
+
+        MutableMap<String, Double> byItem = new ParallelAggregator(this.pool, 7).totalOrderValuesByItem(this.company);
+        Assert.assertEquals(10.5 + 1.5 * 1000, byItem.get("cup"), 0.0);
+        Assert.assertEquals(9.0 + 1000.0, byItem.get("saucer"), 0.0);
+
+        MutableMap<String, Double> byCity = new ParallelAggregator(this.pool, 7).totalOrderValuesByCity(this.company);
+        Assert.assertEquals(byItem.valuesView().injectInto(0.0, SUM), byCity.valuesView().injectInto(0.0, SUM), 0.0);
+    }
+
+    @Test
+    public void inexactTotalsAreDeterministicAndCloseToTheSerialTotals()
+    {
+        Company generated = new Company("Inexact");
+        for (int i = 0; i < 2000; i++)
+        {
+            Customer customer = new Customer("Customer " + i, "City " + i % 3);
+            for (int j = 0; j < 1 + i % 4; j++)
+            {
+                Order order = new Order();
+                order.addLineItem("cup", 1 + j, 0.1 * (1 + i % 7));
+                order.addLineItem("saucer", 1.0 / (3 + j));
+                customer.addOrder(order);
+            }
+            generated.addCustomer(customer);
+        }
+        MutableMap<String, Double> serial = generated.getCustomers().aggregateBy(
+                Customer.TO_CITY,
+                ZERO,
+                new Function2<Double, Customer, Double>()
+                {
+                    @Override
+                    public Double value(Double total, Customer customer)
+                    {
+                        return total + customer.getTotalOrderValue();
+                    }
+                });
+
+        MutableMap<String, Double> byCity = new ParallelAggregator(this.pool, 64).totalOrderValuesByCity(generated);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try
+        {
+            for (int i = 0; i < 5; i++)
+            {
+                Assert.assertEquals(byCity, new ParallelAggregator(this.pool, 64).totalOrderValuesByCity(generated));
+                Assert.assertEquals(byCity, new ParallelAggregator(single, 64).totalOrderValuesByCity(generated));
+            }
+        }
+        finally
+        {
+            single.shutdown();
+        }
+
+        Assert.assertEquals(serial.keysView().toSet(), byCity.keysView().toSet());
+        for (String city : serial.keysView())
+        {
+            Assert.assertEquals(city, serial.get(city), byCity.get(city), Math.abs(serial.get(city)) * 1.0e-12);
+        }
+    }
+}
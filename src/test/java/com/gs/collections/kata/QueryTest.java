@@ -0,0 +1,122 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import com.gs.collections.api.block.function.Function;
+import com.gs.collections.api.block.function.primitive.DoubleFunction;
+import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.impl.block.factory.Predicates;
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.set.mutable.UnifiedSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryTest extends CompanyDomainForKata
+{
+    private static final DoubleFunction<Order> ORDER_VALUE = new DoubleFunction<Order>()
+    {
+        @Override
+        public double doubleValueOf(Order order)
+        {
+            return order.getValue();
+        }
+    };
+
+    @Test
+    public void fusedChainsMatchEagerChains()
+    {
+        Assert.assertEquals(
+                this.company.getCustomers().select(Customer.FROM_LONDON).collect(Customer.TO_NAME),
+                this.company.queryCustomers().select(Customer.FROM_LONDON).collect(Customer.TO_NAME).toList());
+        Assert.assertEquals(
+                this.company.getCustomers().reject(Customer.FROM_LONDON).collect(Customer.TO_CITY),
+                this.company.queryCustomers().reject(Customer.FROM_LONDON).collect(Customer.TO_CITY).toList());
+        Assert.assertEquals(
+                this.company.getCustomers().collectIf(Customer.FROM_LONDON, Customer.TO_NAME),
+                this.company.queryCustomers().collectIf(Customer.FROM_LONDON, Customer.TO_NAME).toList());
+        Assert.assertEquals(
+                this.company.getOrders().flatCollect(Order.TO_LINE_ITEMS).collect(LineItem.TO_NAME).toSet(),
+                this.company.queryOrders().flatCollect(Order.TO_LINE_ITEM_NAMES).toSet());
+        Assert.assertEquals(
+                this.company.getCustomers().groupBy(Customer.TO_CITY),
+                this.company.queryCustomers().groupBy(Customer.TO_CITY));
+        Assert.assertEquals(
+                UnifiedSet.newSetWith("London", "Liphook"),
+                this.company.queryCustomers().collect(Customer.TO_CITY).toSet());
+    }
+
+    @Test
+    public void terminalOperations()
+    {
+        Assert.assertEquals(2, this.company.queryCustomers().select(Customer.FROM_LONDON).count());
+        Assert.assertEquals(68, this.company.queryOrders().flatCollect(Order.TO_LINE_ITEMS).count());
+        Assert.assertEquals(1303.25, this.company.queryOrders().sumOfDouble(ORDER_VALUE), 0.0);
+        Assert.assertEquals("Fred, Mary, Bill", this.company.queryCustomers().collect(Customer.TO_NAME).makeString());
+        Assert.assertEquals("[Fred/Bill]", this.company.queryCustomers().select(Customer.FROM_LONDON).collect(Customer.TO_NAME).makeString("[", "/", "]"));
+        Assert.assertTrue(this.company.queryCustomers().anySatisfy(Customer.FROM_LONDON));
+        Assert.assertFalse(this.company.queryCustomers().allSatisfy(Customer.FROM_LONDON));
+        Assert.assertTrue(this.company.queryOrders().noneSatisfy(Order.IS_DELIVERED));
+        Assert.assertEquals("Mary", this.company.queryCustomers().detect(Predicates.not(Customer.FROM_LONDON)).getName());
+        Assert.assertNull(this.company.queryCustomers().detect(Predicates.attributeEqual(Customer.TO_CITY, "York")));
+    }
+
+    @Test
+    public void detectStopsThePassAtTheFirstMatch()
+    {
+        final int[] visited = new int[1];
+        Function<Order, Iterable<String>> countingNames = new Function<Order, Iterable<String>>()
+        {
+            @Override
+            public Iterable<String> valueOf(Order order)
+            {
+                visited[0]++;
+                return order.getLineItemNames();
+            }
+        };
+        Assert.assertEquals("cup", this.company.queryOrders().flatCollect(countingNames).detect(Predicates.equal("cup")));
+        Assert.assertEquals(1, visited[0]);
+    }
+
+    @Test
+    public void queriesAreReusableAndSeeTheSourceAsItIs()
+    {
+        Query<String> londoners = this.company.queryCustomers().select(Customer.FROM_LONDON).collect(Customer.TO_NAME);
+        Assert.assertEquals(FastList.newListWith("Fred", "Bill"), londoners.toList());
+        this.company.addCustomer(new Customer("Pete", "London"));
+        Assert.assertEquals(FastList.newListWith("Fred", "Bill", "Pete"), londoners.toList());
+    }
+
+    @Test
+    public void fromIterablesWithoutRandomAccess()
+    {
+        Predicate<Integer> isEven = new Predicate<Integer>()
+        {
+            @Override
+            public boolean accept(Integer each)
+            {
+                return each % 2 == 0;
+            }
+        };
+        Query<Integer> query = Query.from(new LinkedList<Integer>(Arrays.asList(1, 2, 3, 4, 5, 6)));
+        Assert.assertEquals(FastList.newListWith(2, 4, 6), query.select(isEven).toList());
+        Assert.assertEquals(Integer.valueOf(2), query.detect(isEven));
+        Assert.assertEquals(0, Query.from(FastList.<Integer>newList()).count());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2011 Goldman Sachs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gs.collections.kata;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SymbolTableTest
+{
+    private final SymbolTable symbols = new SymbolTable();
+
+    @Test
+    public void internSharesOneInstancePerString()
+    {
+        int london = this.symbols.intern("London");
+        Assert.assertEquals(london, this.symbols.intern(new String("London")));
+        Assert.assertSame(this.symbols.valueOf(london), this.symbols.canonical(new String("London")));
+        Assert.assertNotEquals(london, this.symbols.intern("Liphook"));
+    }
+
+    @Test
+    public void spellingsThatDifferOnlyInCaseShareAFoldedSymbol()
+    {
+        int london = this.symbols.intern("London");
+        int shouty = this.symbols.intern("LONDON");
+        Assert.assertNotEquals(london, shouty);
+        Assert.assertEquals("LONDON", this.symbols.valueOf(shouty));
+        Assert.assertEquals(london, this.symbols.fold(shouty));
+        Assert.assertEquals(london, this.symbols.fold(london));
+        Assert.assertEquals(london, this.symbols.lookupFolded("lOnDoN"));
+        Assert.assertEquals(-1, this.symbols.lookupFolded("Hastings"));
+    }
+
+    @Test
+    public void tableGrows()
+    {
+        for (int i = 0; i < 1000; i++)
+        {
+            Assert.assertEquals(i, this.symbols.intern("item " + i));
+        }
+        Assert.assertEquals("item 999", this.symbols.valueOf(999));
+        Assert.assertEquals(500, this.symbols.lookupFolded("ITEM 500"));
+    }
+
+    @Test
+    public void customersShareInternedStrings()
+    {
+        Customer fred = new Customer(new String("Fred"), new String("London"));
+        Customer bill = new Customer(new String("Bill"), new String("LONDON"));
+        Assert.assertSame(fred.getCity(), new Customer("Mary", new String("London")).getCity());
+        Assert.assertEquals(fred.getCitySymbol(), bill.getCitySymbol());
+        Assert.assertTrue(Customer.FROM_LONDON.accept(bill));
+        Assert.assertFalse(Customer.FROM_LONDON.accept(new Customer("Mary", "Liphook")));
+    }
+
+    @Test
+    public void orderContainsItemIgnoringCase()
+    {
+        Order order = new Order();
+        order.addLineItem("shed", 50.0);
+        order.addLineItem("saucer", 3, 1.0);
+        Assert.assertTrue(order.containsItem("Saucer"));
+        Assert.assertFalse(order.containsItem("cup"));
+        Assert.assertFalse(order.containsItem("never ordered by anybody"));
+    }
+}